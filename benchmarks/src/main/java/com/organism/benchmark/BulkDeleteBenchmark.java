@@ -0,0 +1,110 @@
+package com.organism.benchmark;
+
+import com.organism.DatabaseHelper;
+import com.organism.Organism;
+import com.organism.OrganismFilter;
+import com.organism.OrganismManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks purging one clade, about a twelfth of the organisms, from the database and from OrganismManager.
+ *
+ * Every iteration fills a fresh table and manager and times a single purge, since a purge can't be repeated
+ * on the same data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkDeleteBenchmark {
+    private static final String CLADE = "Aves";
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private List<Organism> organisms;
+    private List<String> cladeIds;
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private OrganismManager manager;
+
+    @Setup(Level.Trial)
+    public void makeData() {
+        organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        cladeIds = new ArrayList<>();
+        for (Organism organism : organisms) {
+            if (organism.getCladeName().equals(CLADE)) {
+                cladeIds.add(organism.getId());
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() throws IOException, SQLException {
+        dbFile = Files.createTempFile("organisms", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.importOrganisms(organisms.iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+        manager = new OrganismManager();
+        for (Organism organism : organisms) {
+            manager.addOrganism(new Organism(organism));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    /**
+     * The old way: one deleteOrganism call and transaction per row.
+     */
+    @Benchmark
+    public int deleteOneByOne() throws SQLException {
+        int deleted = 0;
+        for (String id : cladeIds) {
+            if (dbHelper.deleteOrganism(id) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @Benchmark
+    public int deleteByIds() throws SQLException {
+        return dbHelper.deleteOrganisms(cladeIds).size();
+    }
+
+    @Benchmark
+    public int deleteWhereClade() throws SQLException {
+        return dbHelper.deleteOrganismsWhere(OrganismFilter.cladeEquals(CLADE)).size();
+    }
+
+    @Benchmark
+    public int removeIfClade() {
+        return manager.removeOrganismsIf(OrganismFilter.cladeEquals(CLADE));
+    }
+}
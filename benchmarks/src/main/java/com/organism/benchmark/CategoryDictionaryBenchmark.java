@@ -0,0 +1,128 @@
+package com.organism.benchmark;
+
+import com.organism.CategoryDictionary;
+import com.organism.LengthUnit;
+import com.organism.Organism;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares reading the categorical fields of 100,000 rows as fresh Strings against the CategoryDictionary,
+ * and converting lengths with a per-row toLowerCase against LengthUnit.fromSymbol.
+ *
+ * Run with -prof gc and compare gc.alloc.rate.norm, the bytes allocated per operation. The bytes the copies
+ * allocate are also what 100,000 loaded organisms keep on the heap without the dictionary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryDictionaryBenchmark {
+
+    private static final int ROWS = SyntheticData.MAX_ORGANISMS;
+
+    //clade, lifespan unit and length unit of every row, one after the other
+    private char[] chars;
+    private int[] starts;
+    private float[] lengths;
+    private String[] units;
+    private String[] canonicalUnits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Organism> organisms = SyntheticData.organisms(ROWS, SyntheticData.DEFAULT_SEED);
+        StringBuilder text = new StringBuilder();
+        starts = new int[ROWS * 3 + 1];
+        lengths = new float[ROWS];
+        units = new String[ROWS];
+        canonicalUnits = new String[ROWS];
+        int field = 0;
+        for (int i = 0; i < ROWS; i++) {
+            Organism organism = organisms.get(i);
+            for (String value : new String[]{organism.getCladeName(), organism.getLifespanUnit(), organism.getLengthUnit()}) {
+                starts[field++] = text.length();
+                text.append(value);
+            }
+            lengths[i] = organism.getAverageLength();
+            //separate copies, like strings read from a file without the dictionary
+            units[i] = new String(organism.getLengthUnit());
+            canonicalUnits[i] = CategoryDictionary.canonical(units[i]);
+        }
+        starts[field] = text.length();
+        chars = text.toString().toCharArray();
+    }
+
+    @Benchmark
+    public String[] fieldsAsNewStrings() {
+        String[] values = new String[ROWS * 3];
+        for (int f = 0; f < values.length; f++) {
+            values[f] = new String(chars, starts[f], starts[f + 1] - starts[f]);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public String[] fieldsFromDictionary() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        String[] values = new String[ROWS * 3];
+        for (int f = 0; f < values.length; f++) {
+            values[f] = dictionary.canonical(chars, starts[f], starts[f + 1]);
+        }
+        return values;
+    }
+
+    /**
+     * The old way: lower case the unit on every row, then compare strings.
+     */
+    @Benchmark
+    public double centimetersWithToLowerCase() {
+        double sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            String unit = units[i].toLowerCase(Locale.ROOT);
+            float length = lengths[i];
+            sum += unit.equals("m") ? length * 100 : unit.equals("mm") ? length / 10 : length;
+        }
+        return sum;
+    }
+
+    /**
+     * Units as the parser and database now hand them out, matched by reference.
+     */
+    @Benchmark
+    public double centimetersWithLengthUnit() {
+        return centimeters(canonicalUnits);
+    }
+
+    /**
+     * Units that didn't come through the dictionary, matched char by char.
+     */
+    @Benchmark
+    public double centimetersWithLengthUnitCopies() {
+        return centimeters(units);
+    }
+
+    private double centimeters(String[] rowUnits) {
+        double sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            LengthUnit unit = LengthUnit.fromSymbol(rowUnits[i]);
+            sum += unit == null ? lengths[i] : unit.toCentimeters(lengths[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package com.organism.benchmark;
+
+import com.organism.ColumnarOrganismStore;
+import com.organism.Organism;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the ColumnarOrganismStore: filling it and the clade average scans over its primitive columns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarStoreBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Organism> organisms;
+    private ColumnarOrganismStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        store = fill();
+    }
+
+    private ColumnarOrganismStore fill() {
+        ColumnarOrganismStore filled = new ColumnarOrganismStore();
+        for (Organism organism : organisms) {
+            filled.addOrganism(organism);
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public ColumnarOrganismStore addAll() {
+        return fill();
+    }
+
+    @Benchmark
+    public float getAvg() {
+        return store.getAvg("Mammalia");
+    }
+
+    @Benchmark
+    public Map<String, Float> getAverageLengthByClade() {
+        return store.getAverageLengthByClade();
+    }
+}
@@ -0,0 +1,84 @@
+package com.organism.benchmark;
+
+import com.organism.ConcurrentOrganismManager;
+import com.organism.Organism;
+import com.organism.OrganismManager;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mixed read/write load on one shared catalog: 80% lookups, 10% adds and 10% removes of random IDs.
+ *
+ * concurrent uses ConcurrentOrganismManager, locked is the plain OrganismManager behind one lock for comparison.
+ * Runs on every core by default, use -t to pick a thread count and compare the total ops/s to see how it scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ConcurrentManagerBenchmark {
+
+    private List<Organism> organisms;
+    private ConcurrentOrganismManager concurrent;
+    private OrganismManager locked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        organisms = SyntheticData.organisms(SyntheticData.MAX_ORGANISMS, SyntheticData.DEFAULT_SEED);
+        concurrent = new ConcurrentOrganismManager();
+        locked = new OrganismManager();
+        //start half full so adds and removes both mostly succeed
+        for (Organism organism : organisms.subList(0, organisms.size() / 2)) {
+            concurrent.addOrganism(organism);
+            locked.addOrganism(organism);
+        }
+    }
+
+    @Benchmark
+    public Object concurrent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Organism organism = organisms.get(random.nextInt(organisms.size()));
+        int op = random.nextInt(10);
+        if (op == 0) {
+            return concurrent.addOrganism(organism);
+        }
+        if (op == 1) {
+            return concurrent.removeOrganism(organism.getId());
+        }
+        return concurrent.getOrganism(organism.getId());
+    }
+
+    @Benchmark
+    public Object locked() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Organism organism = organisms.get(random.nextInt(organisms.size()));
+        int op = random.nextInt(10);
+        synchronized (locked) {
+            if (op == 0) {
+                return locked.addOrganism(organism);
+            }
+            if (op == 1) {
+                return locked.removeOrganism(organism.getId());
+            }
+            return locked.getOrganism(organism.getId());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.organism.benchmark;
+
+import com.organism.BatchUpdateResult;
+import com.organism.DatabaseHelper;
+import com.organism.Organism;
+import com.organism.OrganismField;
+import com.organism.OrganismPatch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks DatabaseHelper against a temporary SQLite file filled with generated organisms.
+ *
+ * Half of the ID range is loaded up front and the other half is left free for addOrganism,
+ * so the table size stays close to size while the benchmark runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    /** Organisms changed per call of the update benchmarks. */
+    private static final int UPDATE_COUNT = 100;
+
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private List<Organism> extra;
+    private int nextExtra;
+    private List<OrganismPatch> patches;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        dbFile = Files.createTempFile("organisms", ".db");
+        //DatabaseHelper creates the table and indexes in the empty file
+        dbHelper = new DatabaseHelper(dbFile.toString());
+
+        //the first size organisms go in the table, the rest are used by addOrganism
+        List<Organism> all = SyntheticData.organisms(SyntheticData.MAX_ORGANISMS, SyntheticData.DEFAULT_SEED);
+        dbHelper.importOrganisms(all.subList(0, size).iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+        extra = all.subList(size, SyntheticData.MAX_ORGANISMS);
+
+        //two fields for each of UPDATE_COUNT organisms, for the single and batch update benchmarks
+        patches = new ArrayList<>();
+        for (int i = 0; i < UPDATE_COUNT; i++) {
+            Organism o = all.get(i * (size / UPDATE_COUNT));
+            patches.add(new OrganismPatch(o.getId())
+                    .set(OrganismField.LIFESPAN, String.valueOf(o.getLifespanEstimate() + 1))
+                    .set(OrganismField.AVERAGE_LENGTH, String.valueOf(o.getAverageLength() * 2)));
+        }
+    }
+
+    /**
+     * Takes the rows added during the last iteration back out, so every iteration starts with size rows.
+     */
+    @TearDown(Level.Iteration)
+    public void removeAdded() throws SQLException {
+        for (int i = 0; i < nextExtra; i++) {
+            dbHelper.deleteOrganism(extra.get(i).getId());
+        }
+        nextExtra = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public Organism addOrganism() throws SQLException {
+        if (nextExtra == extra.size()) {
+            removeAdded();
+        }
+        Organism o = extra.get(nextExtra++);
+        return dbHelper.addOrganism(o.getId(), o.getCladeName(), o.getGenusSpecies(), o.getLifespanEstimate(),
+                o.getLifespanUnit(), o.getDefinitiveFeatures(), o.getAverageLength(), o.getLengthUnit());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DefaultTableModel getAllOrganisms() throws SQLException {
+        return dbHelper.getAllOrganisms();
+    }
+
+    @Benchmark
+    public List<Organism> getOrganismPage() throws SQLException {
+        return dbHelper.getOrganismPage(null, 500);
+    }
+
+    /**
+     * The same changes as updateBatch, one attribute per updateOrganism call and transaction.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Organism updateSingle() throws SQLException {
+        Organism last = null;
+        for (OrganismPatch patch : patches) {
+            last = dbHelper.updateOrganism(patch.getId(), "lifespan", patch.getValues().get(OrganismField.LIFESPAN));
+            last = dbHelper.updateOrganism(patch.getId(), "average length", patch.getValues().get(OrganismField.AVERAGE_LENGTH));
+        }
+        return last;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BatchUpdateResult updateBatch() throws SQLException {
+        return dbHelper.updateOrganisms(patches);
+    }
+}
@@ -0,0 +1,95 @@
+package com.organism.benchmark;
+
+import com.organism.Organism;
+import com.organism.OrganismManager;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks printing the organism table. Standard output is swapped for an autoflushing PrintStream on
+ * /dev/null, set up like System.out, so the flushes cost a system call each like they do on a terminal.
+ * printfTable is the printf loop displayOrganisms used before OrganismTableRenderer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DisplayBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private OrganismManager manager;
+    private PrintStream originalOut;
+    private PrintStream devNull;
+    private Path tableFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        manager = new OrganismManager();
+        SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED).forEach(manager::addOrganism);
+        originalOut = System.out;
+        devNull = new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 8192), true);
+        System.setOut(devNull);
+        tableFile = Files.createTempFile("organisms", ".table");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        devNull.close();
+        Files.deleteIfExists(tableFile);
+    }
+
+    @Benchmark
+    public OrganismManager printfTable() {
+        System.out.printf("%-8s %-20s %-40s %-15s %-15s %-60s %-15s %-15s%n",
+                "ID |", "| Clade |", "| Genus & Species |", "| Lifespan |", "| Lifespan Unit |", "| Features |", "| Avg Length |", "| Length Unit|");
+        for (Organism organism : manager.getOrganisms()) {
+            System.out.printf("%-8s %-20s %-40s %-15d %-15s %-60s %-15.2f %-15s%n",
+                    organism.getId(), organism.getCladeName(), organism.getGenusSpecies(),
+                    organism.getLifespanEstimate(), organism.getLifespanUnit(), organism.getDefinitiveFeatures(),
+                    organism.getAverageLength(), organism.getLengthUnit());
+        }
+        return manager;
+    }
+
+    @Benchmark
+    public OrganismManager displayOrganisms() {
+        manager.displayOrganisms();
+        return manager;
+    }
+
+    @Benchmark
+    public OrganismManager displayTail() {
+        manager.displayTail(50);
+        return manager;
+    }
+
+    @Benchmark
+    public long writeTable() throws IOException {
+        return manager.writeTable(tableFile.toString(), 0, Long.MAX_VALUE);
+    }
+}
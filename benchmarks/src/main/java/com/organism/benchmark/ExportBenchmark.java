@@ -0,0 +1,86 @@
+package com.organism.benchmark;
+
+import com.organism.DatabaseHelper;
+import com.organism.ExportFormat;
+import com.organism.Organism;
+import com.organism.OrganismExporter;
+import com.organism.OrganismManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks exporting every organism from an OrganismManager in each format, with and without gzip,
+ * and streaming them out of SQLite. IDs are 5 digits, so 100000 organisms is the largest catalog.
+ * The fork runs with a 64 MB heap to show the database export doesn't hold the table in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx64m")
+public class ExportBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"CSV", "JSON_LINES", "DASH"})
+    public ExportFormat format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private OrganismManager manager;
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private Path outFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        List<Organism> organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        manager = new OrganismManager();
+        organisms.forEach(manager::addOrganism);
+        dbFile = Files.createTempFile("organisms", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.importOrganisms(organisms.iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+        outFile = Files.createTempFile("export", format.getExtension());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(outFile);
+    }
+
+    @Benchmark
+    public long exportManager() throws IOException {
+        return manager.export(outFile.toString(), format, gzip);
+    }
+
+    @Benchmark
+    public long exportDatabase() throws IOException, SQLException {
+        try (OrganismExporter exporter = new OrganismExporter(outFile, format, gzip)) {
+            return dbHelper.exportOrganisms(exporter);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.organism.benchmark;
+
+import com.organism.DatabaseHelper;
+import com.organism.Organism;
+import com.organism.OrganismManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the cost of one update: in memory only, in memory and logged to an OrganismJournal (compaction
+ * included), and written to SQLite with DatabaseHelper.updateOrganism.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private List<Organism> organisms;
+    private OrganismManager plain;
+    private OrganismManager journaled;
+    private Path journalDir;
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        plain = new OrganismManager();
+        organisms.forEach(o -> plain.addOrganism(new Organism(o)));
+
+        journalDir = Files.createTempDirectory("journal");
+        journaled = new OrganismManager();
+        journaled.openJournal(journalDir.toString());
+        organisms.forEach(o -> journaled.addOrganism(new Organism(o)));
+
+        dbFile = Files.createTempFile("organisms", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.importOrganisms(organisms.iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journaled.closeJournal();
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+        try (Stream<Path> paths = Files.walk(journalDir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private String nextId() {
+        next = (next + 7919) % size;
+        return organisms.get(next).getId();
+    }
+
+    private String nextLifespan() {
+        return String.valueOf(1 + next % 90);
+    }
+
+    @Benchmark
+    public boolean updateInMemory() {
+        String id = nextId();
+        return plain.updateOrganism(id, "lifespan", nextLifespan());
+    }
+
+    @Benchmark
+    public boolean updateJournaled() {
+        String id = nextId();
+        return journaled.updateOrganism(id, "lifespan", nextLifespan());
+    }
+
+    @Benchmark
+    public Organism updateSqlite() throws SQLException {
+        String id = nextId();
+        return dbHelper.updateOrganism(id, "lifespan", nextLifespan());
+    }
+}
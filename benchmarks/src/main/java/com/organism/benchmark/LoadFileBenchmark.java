@@ -0,0 +1,99 @@
+package com.organism.benchmark;
+
+import com.organism.ExportFormat;
+import com.organism.OrganismManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks loading a generated upload file into an empty OrganismManager, and the same organisms
+ * exported as JSON Lines.
+ *
+ * Besides the time per load, JMH reports a "megabytes" counter, which is the load speed in MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadFileBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Path file;
+    private double fileMegabytes;
+    private Path jsonFile;
+    private double jsonMegabytes;
+
+    /**
+     * Counts the megabytes read. JMH divides it by the measured time, so it shows up as MB/s.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticData.writeFile(Files.createTempFile("organisms", ".txt"), size, SyntheticData.DEFAULT_SEED);
+        fileMegabytes = Files.size(file) / 1_000_000.0;
+        OrganismManager manager = new OrganismManager();
+        manager.loadFile(file.toString());
+        jsonFile = Files.createTempFile("organisms", ".jsonl");
+        manager.export(jsonFile.toString(), ExportFormat.JSON_LINES, false);
+        jsonMegabytes = Files.size(jsonFile) / 1_000_000.0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(jsonFile);
+    }
+
+    @Benchmark
+    public String loadFile(Throughput throughput) {
+        String result = new OrganismManager().loadFile(file.toString());
+        throughput.megabytes += fileMegabytes;
+        return result;
+    }
+
+    @Benchmark
+    public String loadFileParallel(Throughput throughput) {
+        String result = new OrganismManager().loadFileParallel(file.toString());
+        throughput.megabytes += fileMegabytes;
+        return result;
+    }
+
+    @Benchmark
+    public String loadJsonFile(Throughput throughput) {
+        String result = new OrganismManager().loadFile(jsonFile.toString());
+        throughput.megabytes += jsonMegabytes;
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package com.organism.benchmark;
+
+import com.organism.Organism;
+import com.organism.OrganismManager;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the in-memory OrganismManager at different catalog sizes.
+ *
+ * The largest size is 100,000 because IDs are 5 digits. The per-call benchmarks work on a full manager
+ * and leave it the same size after each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrganismManagerBenchmark {
+    private static final String MISSING_ID = "ABCDE";
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Organism> organisms;
+    private OrganismManager manager;
+    private int next;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        manager = new OrganismManager();
+        for (Organism organism : organisms) {
+            manager.addOrganism(organism);
+        }
+        //displayAverageLengthByClade prints, keep that out of the results
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private Organism nextOrganism() {
+        Organism organism = organisms.get(next);
+        next = next + 1 == size ? 0 : next + 1;
+        return organism;
+    }
+
+    /**
+     * Fills an empty manager with every organism. Reported time is for the whole fill.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public OrganismManager addAll() {
+        OrganismManager empty = new OrganismManager();
+        for (Organism organism : organisms) {
+            empty.addOrganism(organism);
+        }
+        return empty;
+    }
+
+    @Benchmark
+    public boolean idDuplicate() {
+        return manager.idDuplicate(nextOrganism().getId());
+    }
+
+    @Benchmark
+    public boolean idDuplicateMissing() {
+        //generated IDs are all digits, so this one is never there
+        return manager.idDuplicate(MISSING_ID);
+    }
+
+    /**
+     * Removes an organism and adds it back, so the manager stays the same size.
+     */
+    @Benchmark
+    public boolean removeAndAdd() {
+        Organism organism = nextOrganism();
+        manager.removeOrganism(organism.getId());
+        return manager.addOrganism(organism);
+    }
+
+    @Benchmark
+    public float getAvg() {
+        return manager.getAvg(nextOrganism().getCladeName());
+    }
+
+    @Benchmark
+    public boolean displayAverageLengthByClade() {
+        return manager.displayAverageLengthByClade();
+    }
+}
@@ -0,0 +1,105 @@
+package com.organism.benchmark;
+
+import com.organism.ColumnarOrganismStore;
+import com.organism.DatabaseHelper;
+import com.organism.Organism;
+import com.organism.OrganismFilter;
+import com.organism.OrganismManager;
+import com.organism.OrganismQuery;
+import com.organism.QueryField;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks OrganismQuery on each store: the 10 longest organisms, and the 10 longest in one clade.
+ * fullSortTop10 is the top 10 found by sorting every organism, for comparison with the bounded heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private OrganismManager manager;
+    private ColumnarOrganismStore store;
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private OrganismQuery top10;
+    private OrganismQuery top10Clade;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        List<Organism> organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        manager = new OrganismManager();
+        store = new ColumnarOrganismStore();
+        for (Organism organism : organisms) {
+            manager.addOrganism(organism);
+            store.addOrganism(organism);
+        }
+        dbFile = Files.createTempFile("organisms", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.importOrganisms(organisms.iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+
+        top10 = OrganismQuery.top(QueryField.LENGTH_CM, 10);
+        top10Clade = OrganismQuery.top(QueryField.LENGTH_CM, 10).where(OrganismFilter.cladeEquals("Mammalia"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public List<Organism> fullSortTop10() {
+        List<Organism> sorted = new ArrayList<>(manager.getOrganisms());
+        sorted.sort(Comparator.comparingDouble(Organism::getLengthCentimeters).reversed());
+        return new ArrayList<>(sorted.subList(0, 10));
+    }
+
+    @Benchmark
+    public List<Organism> managerTop10() {
+        return manager.query(top10);
+    }
+
+    @Benchmark
+    public List<Organism> managerTop10Clade() {
+        return manager.query(top10Clade);
+    }
+
+    @Benchmark
+    public List<Organism> columnarTop10Clade() {
+        return store.query(top10Clade);
+    }
+
+    @Benchmark
+    public List<Organism> databaseTop10Clade() throws SQLException {
+        return dbHelper.query(top10Clade);
+    }
+}
@@ -0,0 +1,76 @@
+package com.organism.benchmark;
+
+import com.organism.OrganismManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks starting an OrganismManager from a binary snapshot against reading the same organisms from the
+ * upload text file, and saving a snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Path textFile;
+    private Path snapshotFile;
+    private Path saveFile;
+    private OrganismManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        textFile = SyntheticData.writeFile(Files.createTempFile("organisms", ".txt"), size, SyntheticData.DEFAULT_SEED);
+        manager = new OrganismManager();
+        manager.loadFile(textFile.toString());
+        snapshotFile = Files.createTempFile("organisms", ".snapshot");
+        manager.saveSnapshot(snapshotFile.toString());
+        saveFile = Files.createTempFile("save", ".snapshot");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(saveFile);
+    }
+
+    @Benchmark
+    public String loadTextFile() {
+        return new OrganismManager().loadFile(textFile.toString());
+    }
+
+    @Benchmark
+    public int loadSnapshot() throws IOException {
+        return new OrganismManager().loadSnapshot(snapshotFile.toString());
+    }
+
+    @Benchmark
+    public OrganismManager saveSnapshot() throws IOException {
+        manager.saveSnapshot(saveFile.toString());
+        return manager;
+    }
+}
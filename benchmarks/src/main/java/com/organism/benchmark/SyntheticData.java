@@ -0,0 +1,142 @@
+package com.organism.benchmark;
+
+import com.organism.Organism;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes reproducible fake organisms for the benchmarks.
+ *
+ * The same count and seed always give the same organisms, so results from two builds can be compared.
+ * IDs are the numbers 0 to count - 1 as 5 digit strings, in a shuffled order, so at most 100,000 organisms
+ * can be made. That is also the most the application can hold.
+ *
+ * Running the main method writes a file in the upload format:
+ * {@code java -cp benchmarks.jar com.organism.benchmark.SyntheticData <file> <count> [seed]}
+ */
+public final class SyntheticData {
+    /** The most organisms there can be with 5 digit IDs. */
+    public static final int MAX_ORGANISMS = 100_000;
+    /** Seed used when none is given. */
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] CLADES = {"Mammalia", "Aves", "Reptilia", "Amphibia", "Actinopterygii",
+            "Insecta", "Arachnida", "Mollusca", "Crustacea", "Cnidaria", "Annelida", "Echinodermata"};
+    private static final String[] GENERA = {"Panthera", "Canis", "Ursus", "Aquila", "Python", "Rana", "Salmo",
+            "Apis", "Latrodectus", "Octopus", "Homarus", "Aurelia", "Lumbricus", "Asterias"};
+    private static final String[] SPECIES = {"leo", "lupus", "arctos", "chrysaetos", "regius", "temporaria",
+            "salar", "mellifera", "mactans", "vulgaris", "americanus", "aurita", "terrestris", "rubens"};
+    private static final String[] LIFESPAN_UNITS = {"years", "months", "days"};
+    private static final String[] LENGTH_UNITS = {"mm", "cm", "m"};
+    private static final String[] FEATURES = {"fur", "feathers", "scales", "gills", "venom", "shell",
+            "six legs", "eight legs", "tentacles", "spines", "nocturnal", "migratory", "colonial", "camouflage"};
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Makes count organisms.
+     *
+     * @param count how many organisms to make, at most MAX_ORGANISMS.
+     * @param seed the random seed.
+     * @return the organisms with their IDs in shuffled order.
+     */
+    public static List<Organism> organisms(int count, long seed) {
+        if (count < 0 || count > MAX_ORGANISMS) {
+            throw new IllegalArgumentException("count must be between 0 and " + MAX_ORGANISMS + ": " + count);
+        }
+        Random random = new Random(seed);
+        int[] ids = shuffledIds(count, random);
+        List<Organism> organisms = new ArrayList<>(count);
+        for (int id : ids) {
+            organisms.add(organism(id, random));
+        }
+        return organisms;
+    }
+
+    /**
+     * Makes one organism with the given ID.
+     *
+     * @param id the number used for the ID.
+     * @param random where the other values come from.
+     * @return the organism.
+     */
+    public static Organism organism(int id, Random random) {
+        String features = pick(FEATURES, random) + ", " + pick(FEATURES, random);
+        //one decimal place, like hand written files
+        float length = (1 + random.nextInt(20_000)) / 10f;
+        return new Organism(formatId(id), pick(CLADES, random), pick(GENERA, random) + " " + pick(SPECIES, random),
+                1 + random.nextInt(100), pick(LIFESPAN_UNITS, random), features, length, pick(LENGTH_UNITS, random));
+    }
+
+    /**
+     * @return the number as a 5 digit ID.
+     */
+    public static String formatId(int id) {
+        return String.format("%05d", id);
+    }
+
+    /**
+     * Writes count organisms to a file in the upload format, one per line.
+     *
+     * @param file where to write.
+     * @param count how many organisms to write.
+     * @param seed the random seed.
+     * @return the file.
+     * @throws IOException if the file can't be written.
+     */
+    public static Path writeFile(Path file, int count, long seed) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Organism organism : organisms(count, seed)) {
+                writer.write(toLine(organism));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return the organism as a line of an upload file, without the line break.
+     */
+    public static String toLine(Organism organism) {
+        return organism.getId() + "-" + organism.getCladeName() + "-" + organism.getGenusSpecies() + "-"
+                + organism.getLifespanEstimate() + "-" + organism.getLifespanUnit() + "-"
+                + organism.getDefinitiveFeatures() + "-" + organism.getAverageLength() + "-" + organism.getLengthUnit();
+    }
+
+    private static int[] shuffledIds(int count, Random random) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticData <file> <count> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Path file = writeFile(Paths.get(args[0]), Integer.parseInt(args[1]), seed);
+        System.out.println("Wrote " + args[1] + " organisms to " + file + " (" + Files.size(file) + " bytes)");
+    }
+}
@@ -0,0 +1,89 @@
+package com.organism.benchmark;
+
+import com.organism.DatabaseHelper;
+import com.organism.Organism;
+import com.organism.OrganismFilter;
+import com.organism.OrganismManager;
+import com.organism.OrganismQuery;
+import com.organism.QueryField;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a two word search, one of them a prefix, with the in-memory text index and SQLite FTS5.
+ * scanContains is the same search as substring filters over every organism, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextSearchBenchmark {
+    private static final String SEARCH = "venom sca*";
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private OrganismManager manager;
+    private Path dbFile;
+    private DatabaseHelper dbHelper;
+    private OrganismQuery scan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        List<Organism> organisms = SyntheticData.organisms(size, SyntheticData.DEFAULT_SEED);
+        manager = new OrganismManager();
+        for (Organism organism : organisms) {
+            manager.addOrganism(organism);
+        }
+        //the first search builds the index
+        manager.search(SEARCH, 1);
+        dbFile = Files.createTempFile("organisms", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.importOrganisms(organisms.iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, true);
+
+        scan = new OrganismQuery().where(OrganismFilter.contains(QueryField.FEATURES, "venom")
+                .and(OrganismFilter.contains(QueryField.FEATURES, "sca"))).limit(20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public List<Organism> scanContains() {
+        return manager.query(scan);
+    }
+
+    @Benchmark
+    public List<Organism> managerSearch() {
+        return manager.search(SEARCH, 20);
+    }
+
+    @Benchmark
+    public List<Organism> databaseSearch() throws SQLException {
+        return dbHelper.search(SEARCH, 20);
+    }
+}
@@ -0,0 +1,141 @@
+package com.organism;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs database and file work off the Swing event dispatch thread so the window doesn't freeze.
+ *
+ * The work runs on a SwingWorker background thread. Its result, or the exception it threw, is handed to a callback
+ * on the event dispatch thread. Long jobs can show a ProgressDialog: the work calls reportProgress with the number
+ * of rows done so far and checks isCancelRequested to stop early when the user presses Cancel.
+ *
+ * @param <T> the type of result the work produces.
+ */
+public class BackgroundTask<T> extends SwingWorker<T, Long> implements TaskProgress {
+    private static final Logger logger = LogManager.getLogger(BackgroundTask.class);
+
+    /**
+     * The work to run in the background.
+     *
+     * @param <T> the type of result the work produces.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        /**
+         * @param progress used to report progress and check for cancel.
+         * @return the result handed to the success callback.
+         * @throws Exception anything thrown is handed to the failure callback.
+         */
+        T run(TaskProgress progress) throws Exception;
+    }
+
+    private final Work<T> work;
+    private final Consumer<T> onSuccess;
+    private final Consumer<Exception> onFailure;
+    private final ProgressDialog dialog;
+    private volatile boolean cancelRequested;
+
+    private BackgroundTask(Work<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure, ProgressDialog dialog) {
+        this.work = work;
+        this.onSuccess = onSuccess;
+        this.onFailure = onFailure;
+        this.dialog = dialog;
+    }
+
+    /**
+     * Runs work in the background without a progress dialog.
+     *
+     * @param work the work to run.
+     * @param onSuccess called on the event dispatch thread with the result.
+     * @param onFailure called on the event dispatch thread if the work throws.
+     * @return the started task.
+     */
+    public static <T> BackgroundTask<T> run(Work<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        BackgroundTask<T> task = new BackgroundTask<>(work, onSuccess, onFailure, null);
+        task.execute();
+        return task;
+    }
+
+    /**
+     * Runs work in the background with a progress dialog that shows the rows done, the rows per second
+     * and a Cancel button. Must be called on the event dispatch thread. The dialog is modal, so this returns
+     * once the work has finished and the callback has run.
+     *
+     * @param parent the window the dialog belongs to.
+     * @param title the dialog title.
+     * @param work the work to run.
+     * @param onSuccess called on the event dispatch thread with the result, also after a cancel.
+     * @param onFailure called on the event dispatch thread if the work throws.
+     * @return the started task.
+     */
+    public static <T> BackgroundTask<T> runWithProgress(Component parent, String title, Work<T> work,
+                                                        Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        ProgressDialog dialog = new ProgressDialog(parent, title);
+        BackgroundTask<T> task = new BackgroundTask<>(work, onSuccess, onFailure, dialog);
+        dialog.onCancel(() -> task.cancelRequested = true);
+        task.execute();
+        dialog.setVisible(true);
+        return task;
+    }
+
+    /**
+     * Reports how many rows are done. Safe to call often from the background thread, updates are batched.
+     *
+     * @param rows rows done so far.
+     */
+    @Override
+    public void reportProgress(long rows) {
+        publish(rows);
+    }
+
+    /**
+     * The work should check this regularly and stop when it returns true. It is set by the dialog's Cancel button.
+     * The work still returns a result, so anything it already finished can be reported.
+     *
+     * @return true if the user asked to cancel.
+     */
+    @Override
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        return work.run(this);
+    }
+
+    @Override
+    protected void process(List<Long> chunks) {
+        if (dialog != null && !chunks.isEmpty()) {
+            dialog.showRows(chunks.get(chunks.size() - 1));
+        }
+    }
+
+    @Override
+    protected void done() {
+        if (dialog != null) {
+            dialog.dispose();
+        }
+        T result;
+        try {
+            result = get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onFailure.accept(e);
+            return;
+        } catch (ExecutionException e) {
+            Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            logger.error("Background task failed", cause);
+            onFailure.accept(cause);
+            return;
+        }
+        onSuccess.accept(result);
+    }
+}
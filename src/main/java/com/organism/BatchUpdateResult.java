@@ -0,0 +1,98 @@
+package com.organism;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batch update: one result per patch, in the order the patches were given.
+ */
+public class BatchUpdateResult {
+
+    /**
+     * What happened to a patch.
+     */
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    /**
+     * The result of a single patch.
+     */
+    public static class Outcome {
+        private final String id;
+        private final Status status;
+        private final String message;
+
+        /**
+         * @param id the organism ID of the patch.
+         * @param status what happened.
+         * @param message why the patch was rejected, or null if it was applied.
+         */
+        public Outcome(String id, Status status, String message) {
+            this.id = id;
+            this.status = status;
+            this.message = message;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return id + ": " + status + (message == null ? "" : " (" + message + ")");
+        }
+    }
+
+    private final List<Outcome> outcomes = new ArrayList<>();
+    private int updated;
+
+    /**
+     * Records the result of the next patch.
+     *
+     * @param outcome the result.
+     */
+    void add(Outcome outcome) {
+        outcomes.add(outcome);
+        if (outcome.getStatus() == Status.UPDATED) {
+            updated++;
+        }
+    }
+
+    /**
+     * @return one outcome per patch, in patch order.
+     */
+    public List<Outcome> getOutcomes() {
+        return Collections.unmodifiableList(outcomes);
+    }
+
+    /**
+     * @return the number of patches that were applied.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return the number of patches that were not applied.
+     */
+    public int getFailed() {
+        return outcomes.size() - updated;
+    }
+
+    @Override
+    public String toString() {
+        return "Updated: " + updated + "\nFailed: " + getFailed();
+    }
+}
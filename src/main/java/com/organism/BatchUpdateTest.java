@@ -0,0 +1,55 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchUpdateTest {
+
+    @org.junit.jupiter.api.Test
+    void databaseBatchUpdate() throws Exception {
+        Path dbFile = Files.createTempFile("batch", ".db");
+        try (DatabaseHelper dbHelper = new DatabaseHelper(dbFile.toString())) {
+            dbHelper.addOrganism("00001", "Aves", "Aquila chrysaetos", 30, "years", "wings", 80, "cm");
+            dbHelper.addOrganism("00002", "Mammalia", "Canis lupus", 12, "years", "fur", 1.3F, "m");
+
+            BatchUpdateResult result = dbHelper.updateOrganisms(List.of(
+                    new OrganismPatch("00001").set(OrganismField.AVERAGE_LENGTH, "2").set(OrganismField.LENGTH_UNIT, "m"),
+                    new OrganismPatch("00002").set(OrganismField.LIFESPAN, "-1"),
+                    new OrganismPatch("00002").set(OrganismField.LENGTH_UNIT, "mm"),
+                    new OrganismPatch("00009").set(OrganismField.CLADE, "Reptilia")));
+
+            assertEquals(2, result.getUpdated());
+            assertEquals(BatchUpdateResult.Status.INVALID, result.getOutcomes().get(1).getStatus());
+            assertEquals("Lifespan must be a positive integer.", result.getOutcomes().get(1).getMessage());
+            assertEquals(BatchUpdateResult.Status.NOT_FOUND, result.getOutcomes().get(3).getStatus());
+
+            Organism eagle = dbHelper.getOrganism("00001");
+            assertEquals(2F, eagle.getAverageLength());
+            assertEquals("m", eagle.getLengthUnit());
+            assertEquals(12, dbHelper.getOrganism("00002").getLifespanEstimate());
+            //length_cm follows the unit change, so the clade averages use it
+            assertTrue(dbHelper.getAverageLengthByCladeString().contains("Clade: Aves | Average Length: 200.00 cm"));
+            assertTrue(dbHelper.getAverageLengthByCladeString().contains("Clade: Mammalia | Average Length: 0.13 cm"));
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void managerAppliesWholePatches() {
+        OrganismManager manager = new OrganismManager();
+        manager.addOrganism(new Organism("00001", "Aves", "Aquila chrysaetos", 30, "years", "wings", 80, "cm"));
+
+        BatchUpdateResult result = manager.updateOrganisms(List.of(
+                new OrganismPatch("00001").set(OrganismField.CLADE, "Reptilia").set(OrganismField.LENGTH_UNIT, "in"),
+                new OrganismPatch("00001").set(OrganismField.CLADE, "Reptilia").set(OrganismField.LENGTH_UNIT, "m")));
+
+        assertEquals(BatchUpdateResult.Status.INVALID, result.getOutcomes().get(0).getStatus());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0F, manager.getAvg("Aves"));
+        assertEquals(8000F, manager.getAvg("Reptilia"));
+    }
+}
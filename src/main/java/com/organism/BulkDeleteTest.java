@@ -0,0 +1,67 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkDeleteTest {
+
+    static List<Organism> organisms() {
+        List<Organism> list = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            String clade = i % 3 == 0 ? "Aves" : "Mammalia";
+            list.add(new Organism(String.format("%05d", i), clade, "Genus species", 10, "years", "fur", i % 100 + 1, "cm"));
+        }
+        return list;
+    }
+
+    @org.junit.jupiter.api.Test
+    void databaseDeletesByIdsAndFilter() throws Exception {
+        Path dbFile = Files.createTempFile("delete", ".db");
+        try (DatabaseHelper dbHelper = new DatabaseHelper(dbFile.toString())) {
+            dbHelper.importOrganisms(organisms().iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, false);
+
+            //more IDs than one IN list holds, with some that don't exist
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 1300; i += 2) {
+                ids.add(String.format("%05d", i));
+            }
+            assertEquals(600, dbHelper.deleteOrganisms(ids).size());
+            assertEquals(600, dbHelper.countOrganisms());
+
+            List<String> deleted = dbHelper.deleteOrganismsWhere(OrganismFilter.cladeEquals("Aves"));
+            assertEquals(200, deleted.size());
+            assertEquals(400, dbHelper.countOrganisms());
+            assertEquals(40, dbHelper.deleteOrganismsWhere(
+                    OrganismFilter.cladeEquals("Mammalia").and(OrganismFilter.shorterThan(11))).size());
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void inMemoryDeletes() {
+        OrganismManager manager = new OrganismManager();
+        ColumnarOrganismStore store = new ColumnarOrganismStore();
+        for (Organism organism : organisms()) {
+            manager.addOrganism(organism);
+            store.addOrganism(organism);
+        }
+
+        assertEquals(400, manager.removeOrganismsIf(OrganismFilter.cladeEquals("Aves")));
+        assertEquals(400, store.removeOrganismsIf(OrganismFilter.cladeEquals("Aves")));
+        assertEquals(0F, manager.getAvg("Aves"));
+        assertEquals(0F, store.getAvg("Aves"));
+
+        assertEquals(2, manager.removeOrganisms(List.of("00001", "00002", "00003")));
+        assertEquals(2, store.removeOrganisms(List.of("00001", "00002", "00003")));
+        assertEquals(798, store.size());
+        //kept rows stay in order and can still be found by ID
+        assertEquals("00004", store.getOrganisms().get(0).getId());
+        assertEquals("01199", store.getOrganism("01199").getId());
+        assertNull(store.getOrganism("00001"));
+    }
+}
@@ -0,0 +1,240 @@
+package com.organism;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bulk import session into the Organisms table, opened with DatabaseHelper.openBulkImport.
+ *
+ * Rows are validated as they are added and sent to SQLite with addBatch/executeBatch. Every chunk of
+ * batchSize rows is committed as one transaction, so a large import does one commit per chunk instead of one per row.
+ * Rows that fail validation or that SQLite ignores, like an existing ID, are reported as rejects and the rest of
+ * the chunk still goes in.
+ *
+ * Call finish() to commit the last chunk. Closing the session without finishing rolls back the uncommitted chunk;
+ * chunks that were already committed stay in the database.
+ */
+public class BulkImport implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(BulkImport.class);
+
+    //OR IGNORE makes an existing ID come back with an update count of 0 instead of failing the whole batch
+    private static final String INSERT_OR_IGNORE_SQL = "INSERT OR IGNORE INTO Organisms (organism_id, clade, species, lifespan, lifespan_unit, features, average_length, length_unit, length_cm) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final PooledConnection conn;
+    private final Connection connection;
+    private final PreparedStatement ps;
+    private final int batchSize;
+    private final BulkImportResult result = new BulkImportResult();
+
+    //ids and line numbers of the rows in the current batch, so update counts can be matched back to rows
+    private final List<String> batchIds = new ArrayList<>();
+    private final List<Long> batchLines = new ArrayList<>();
+
+    private String previousSynchronous;
+    private long rowNumber;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Starts a bulk import on a borrowed connection.
+     *
+     * @param conn the pooled connection to use, given back when the session closes.
+     * @param batchSize number of rows per batch and per transaction.
+     * @param fastLoad if true, uses synchronous=NORMAL on this connection for the duration of the load.
+     * @throws SQLException if the transaction can't be started.
+     */
+    BulkImport(PooledConnection conn, int batchSize, boolean fastLoad) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.conn = conn;
+        this.connection = conn.getConnection();
+        this.batchSize = batchSize;
+        try {
+            //journal_mode is left alone: it applies to the whole database file, which other pooled connections
+            //are using, and SQLite can refuse to switch it back. synchronous only applies to this connection
+            if (fastLoad) {
+                previousSynchronous = pragma("synchronous", "NORMAL");
+            }
+            this.ps = conn.prepare(INSERT_OR_IGNORE_SQL);
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            restorePragmas();
+            conn.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds an organism to the current batch. The row number is counted automatically.
+     *
+     * @param organism the organism to insert.
+     * @return true if the row was queued; false if it was rejected by validation.
+     * @throws SQLException if a batch fails to execute or commit.
+     */
+    public boolean add(Organism organism) throws SQLException {
+        return add(organism, rowNumber + 1);
+    }
+
+    /**
+     * Adds an organism to the current batch.
+     *
+     * @param organism the organism to insert.
+     * @param line line number of the organism in its source file, used when reporting rejects.
+     * @return true if the row was queued; false if it was rejected by validation.
+     * @throws SQLException if a batch fails to execute or commit.
+     */
+    public boolean add(Organism organism, long line) throws SQLException {
+        rowNumber = line;
+        String problem = OrganismValidator.validate(organism);
+        if (problem != null) {
+            result.addReject(new BulkImportResult.Reject(line, organism == null ? null : organism.getId(), problem));
+            return false;
+        }
+
+        ps.setString(1, organism.getId());
+        ps.setString(2, organism.getCladeName());
+        ps.setString(3, organism.getGenusSpecies());
+        ps.setInt(4, organism.getLifespanEstimate());
+        ps.setString(5, organism.getLifespanUnit());
+        ps.setString(6, organism.getDefinitiveFeatures());
+        ps.setFloat(7, organism.getAverageLength());
+        ps.setString(8, organism.getLengthUnit());
+        ps.setFloat(9, organism.getLengthCentimeters());
+        ps.addBatch();
+        batchIds.add(organism.getId());
+        batchLines.add(line);
+
+        if (batchIds.size() >= batchSize) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Records a row that was rejected before it became an organism, for example a line that couldn't be parsed.
+     *
+     * @param line line number in the source file.
+     * @param reason why the row was rejected.
+     */
+    public void reject(long line, String reason) {
+        rowNumber = line;
+        result.addReject(new BulkImportResult.Reject(line, null, reason));
+    }
+
+    /**
+     * Returns how many rows have been committed so far.
+     *
+     * @return the number of inserted organisms.
+     */
+    public long getInserted() {
+        return result.getInserted();
+    }
+
+    /**
+     * Commits the last chunk and ends the session.
+     *
+     * @return the number of inserted rows and the rejects.
+     * @throws SQLException if the last batch fails.
+     */
+    public BulkImportResult finish() throws SQLException {
+        flush();
+        finished = true;
+        close();
+        logger.info("Bulk import finished. Inserted: {} Rejected: {}", result.getInserted(), result.getRejects().size());
+        return result;
+    }
+
+    /**
+     * Ends the session. Anything not yet committed is rolled back, the pragmas are put back and the
+     * connection returns to the pool.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!finished && !batchIds.isEmpty()) {
+            logger.warn("Bulk import closed with {} uncommitted rows, rolling back", batchIds.size());
+        }
+        try {
+            ps.clearBatch();
+            connection.rollback();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("Could not reset connection after bulk import", e);
+        }
+        restorePragmas();
+        conn.close();
+    }
+
+    /**
+     * Executes and commits the current batch, turning update counts of 0 into rejects. OR IGNORE skips a row
+     * for an existing ID or any other constraint, so the reject says it was ignored rather than guessing why.
+     *
+     * @throws SQLException if the batch or commit fails.
+     */
+    private void flush() throws SQLException {
+        if (batchIds.isEmpty()) {
+            return;
+        }
+        int[] counts = ps.executeBatch();
+        connection.commit();
+
+        long inserted = 0;
+        for (int i = 0; i < counts.length && i < batchIds.size(); i++) {
+            if (counts[i] == 0) {
+                result.addReject(new BulkImportResult.Reject(batchLines.get(i), batchIds.get(i), "ignored (duplicate ID or constraint)"));
+            } else {
+                inserted++;
+            }
+        }
+        result.addInserted(inserted);
+        logger.debug("Committed bulk import batch of {} rows", batchIds.size());
+        batchIds.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * Sets a pragma and returns its old value.
+     *
+     * @param name the pragma name.
+     * @param value the new value.
+     * @return the value before the change.
+     * @throws SQLException if the pragma can't be read or set.
+     */
+    private String pragma(String name, String value) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            String previous;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+                previous = rs.next() ? rs.getString(1) : null;
+            }
+            stmt.execute("PRAGMA " + name + " = " + value);
+            return previous;
+        }
+    }
+
+    /**
+     * Puts synchronous back to what it was before a fast load.
+     */
+    private void restorePragmas() {
+        try (Statement stmt = connection.createStatement()) {
+            if (previousSynchronous != null) {
+                stmt.execute("PRAGMA synchronous = " + previousSynchronous);
+                previousSynchronous = null;
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not restore pragmas after bulk import", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.organism;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many organisms were inserted and which rows were rejected and why.
+ */
+public class BulkImportResult {
+
+    /**
+     * A single rejected row.
+     */
+    public static class Reject {
+        private final long line;
+        private final String id;
+        private final String reason;
+
+        /**
+         * @param line the line or row number in the input, starting at 1.
+         * @param id the organism ID if one could be read, otherwise null.
+         * @param reason why the row was rejected.
+         */
+        public Reject(long line, String id, String reason) {
+            this.line = line;
+            this.id = id;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + (id == null ? "" : " (ID " + id + ")") + ": " + reason;
+        }
+    }
+
+    private long inserted;
+    private boolean cancelled;
+    private final List<Reject> rejects = new ArrayList<>();
+
+    /**
+     * Counts inserted rows.
+     *
+     * @param count number of rows that were inserted.
+     */
+    void addInserted(long count) {
+        inserted += count;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param reject the rejected row.
+     */
+    void addReject(Reject reject) {
+        rejects.add(reject);
+    }
+
+    /**
+     * Marks the import as stopped early by the user.
+     *
+     * @param cancelled true if the import was cancelled.
+     */
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * @return true if the import was cancelled before the end of the input.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the number of organisms that were inserted.
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * @return the rejected rows in the order they were found.
+     */
+    public List<Reject> getRejects() {
+        return Collections.unmodifiableList(rejects);
+    }
+
+    @Override
+    public String toString() {
+        return "Added: " + inserted + "\nRejected: " + rejects.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.organism;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one shared String for each value of the categorical organism fields: clade, lifespan unit and length unit.
+ *
+ * These values repeat on almost every row, so without this every loaded organism holds its own copies of the
+ * same few strings. The static canonical method works like String.intern for these fields, backed by one
+ * shared map. An instance adds a small cache in front of it that looks values up straight from a char buffer,
+ * so the parser doesn't make a String at all for a value it has seen before. Instances are not thread safe,
+ * each parser has its own.
+ */
+public final class CategoryDictionary {
+    /** Most values kept in the shared map, so a file full of made up clades can't grow it forever. */
+    private static final int MAX_SHARED_VALUES = 65_536;
+    /** Slots in each instance's cache, a power of two. */
+    private static final int CACHE_SLOTS = 1024;
+
+    private static final ConcurrentHashMap<String, String> SHARED = new ConcurrentHashMap<>();
+
+    static {
+        //the length unit symbols are the canonical unit strings, so LengthUnit.fromSymbol can match by reference
+        for (LengthUnit unit : LengthUnit.values()) {
+            SHARED.put(unit.getSymbol(), unit.getSymbol());
+        }
+    }
+
+    //direct mapped cache: a value goes in the slot picked by its hash and replaces whatever was there
+    private final String[] cache = new String[CACHE_SLOTS];
+
+    /**
+     * Returns the shared copy of a categorical value.
+     *
+     * @param value the value, may be null.
+     * @return an equal String that is shared by every caller, or value itself if it is null or the
+     * dictionary is full.
+     */
+    public static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = SHARED.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (SHARED.size() >= MAX_SHARED_VALUES) {
+            return value;
+        }
+        shared = SHARED.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+
+    /**
+     * Returns the shared copy of the value in buf from start to end, only making a String on a cache miss.
+     *
+     * @param buf the characters.
+     * @param start index of the first character.
+     * @param end index after the last character.
+     * @return the shared String equal to the characters.
+     */
+    public String canonical(char[] buf, int start, int end) {
+        //same hash as String.hashCode, so a cached String's stored hash can be compared first
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (CACHE_SLOTS - 1);
+        String cached = cache[slot];
+        if (cached != null && cached.hashCode() == hash && matches(cached, buf, start, end)) {
+            return cached;
+        }
+        String value = canonical(new String(buf, start, end - start));
+        cache[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(String value, char[] buf, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
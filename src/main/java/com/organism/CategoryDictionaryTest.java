@@ -0,0 +1,33 @@
+package com.organism;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryDictionaryTest {
+
+    @org.junit.jupiter.api.Test
+    void parsedOrganismsShareCategoryStrings() throws Exception {
+        String text = "00001-Mammalia-Canis lupus-12-years-fur-1.3-m\n"
+                + "00002-Mammalia-Ursus arctos-25-years-fur-2.0-m\n";
+        try (OrganismParser parser = new OrganismParser(new StringReader(text))) {
+            assertTrue(parser.next());
+            Organism first = parser.getOrganism();
+            assertTrue(parser.next());
+            Organism second = parser.getOrganism();
+
+            assertSame(first.getCladeName(), second.getCladeName());
+            assertSame(first.getLifespanUnit(), second.getLifespanUnit());
+            assertSame(LengthUnit.M.getSymbol(), second.getLengthUnit());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void lengthUnitsIgnoreCase() {
+        assertEquals(LengthUnit.MM, LengthUnit.fromSymbol("MM"));
+        assertEquals(LengthUnit.CM, LengthUnit.fromSymbol(new String("cm")));
+        assertNull(LengthUnit.fromSymbol("km"));
+        assertEquals(5F, OrganismManager.toCentimeters(50, "mm"));
+        assertEquals(7F, OrganismManager.toCentimeters(7, "inches"));
+    }
+}
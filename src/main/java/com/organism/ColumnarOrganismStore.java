@@ -0,0 +1,553 @@
+package com.organism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Memory-light organism store that keeps each attribute in its own array instead of one object per organism.
+ *
+ * IDs, lifespans and lengths are primitive arrays, and each length is also kept converted to centimeters so the
+ * clade averages are plain sums. Clade, lifespan unit and length unit repeat a lot, so each distinct value is stored
+ * once in a dictionary and the rows only hold its short or byte code. Genus and features are mostly unique,
+ * so they stay as String arrays. Since IDs are 5 digits, an int array of 100,000 entries
+ * maps an ID straight to its row.
+ *
+ * Organisms handed out are new objects built from the row, changing them does not change the store;
+ * use updateOrganism instead. Rows are kept packed, so removing an organism moves the last row into its place
+ * and the order of getOrganisms is not the insertion order. This class is not thread safe.
+ */
+public class ColumnarOrganismStore {
+    private static final Logger logger = LogManager.getLogger(ColumnarOrganismStore.class);
+
+    /** The number of possible 5 digit IDs. */
+    private static final int ID_SPACE = 100_000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    //id number -> row, -1 when the ID isn't used
+    private final int[] rowOfId = new int[ID_SPACE];
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] lifespans = new int[INITIAL_CAPACITY];
+    private float[] lengths = new float[INITIAL_CAPACITY];
+    private float[] lengthsCentimeters = new float[INITIAL_CAPACITY];
+    private short[] cladeCodes = new short[INITIAL_CAPACITY];
+    private byte[] lifespanUnitCodes = new byte[INITIAL_CAPACITY];
+    private byte[] lengthUnitCodes = new byte[INITIAL_CAPACITY];
+    private String[] genusSpecies = new String[INITIAL_CAPACITY];
+    private String[] features = new String[INITIAL_CAPACITY];
+
+    private final Dictionary clades = new Dictionary(Short.MAX_VALUE);
+    private final Dictionary lifespanUnits = new Dictionary(Byte.MAX_VALUE);
+    private final Dictionary lengthUnits = new Dictionary(Byte.MAX_VALUE);
+
+    /**
+     * Gives each distinct string a small code, in the order the strings are first seen.
+     */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final int maxCodes;
+
+        Dictionary(int maxCodes) {
+            this.maxCodes = maxCodes;
+        }
+
+        /**
+         * @return the code of the value, or -1 if it isn't in the dictionary.
+         */
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        /**
+         * @return the code of the value, adding it if it is new, or -1 if the dictionary is full.
+         */
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (values.size() == maxCodes) {
+                return -1;
+            }
+            values.add(value);
+            codes.put(value, values.size() - 1);
+            return values.size() - 1;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Creates an empty store.
+     */
+    public ColumnarOrganismStore() {
+        Arrays.fill(rowOfId, -1);
+    }
+
+    /**
+     * @return the number of organisms stored.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if an ID is in use.
+     *
+     * @param id the ID to check.
+     * @return true if an organism with the ID exists.
+     */
+    public boolean idDuplicate(String id) {
+        return rowOf(id) >= 0;
+    }
+
+    /**
+     * Adds an organism if its ID is a free 5 digit number.
+     *
+     * @param organism the organism to add, its values are copied into the store.
+     * @return true if it was added; false if the ID is invalid or taken, or there are too many distinct
+     * clades or units to encode.
+     */
+    public boolean addOrganism(Organism organism) {
+        int idNumber = parseId(organism == null ? null : organism.getId());
+        if (idNumber < 0) {
+            logger.warn("Failed add: invalid organism or ID format");
+            return false;
+        }
+        if (rowOfId[idNumber] >= 0) {
+            logger.warn("Failed add: duplicate ID {}", organism.getId());
+            return false;
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        if (!writeRow(size, organism)) {
+            return false;
+        }
+        ids[size] = idNumber;
+        rowOfId[idNumber] = size;
+        size++;
+        return true;
+    }
+
+    /**
+     * Looks up an organism by its ID.
+     *
+     * @param id the organism ID.
+     * @return a new Organism with the stored values, or null if it doesn't exist.
+     */
+    public Organism getOrganism(String id) {
+        int row = rowOf(id);
+        return row < 0 ? null : organismAt(row);
+    }
+
+    /**
+     * Removes an organism by its ID. The last row is moved into the freed row.
+     *
+     * @param id the organism ID.
+     * @return the removed organism, or null if it doesn't exist.
+     */
+    public Organism removeOrganism(String id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        Organism removed = organismAt(row);
+        int last = size - 1;
+        rowOfId[ids[row]] = -1;
+        if (row != last) {
+            ids[row] = ids[last];
+            lifespans[row] = lifespans[last];
+            lengths[row] = lengths[last];
+            lengthsCentimeters[row] = lengthsCentimeters[last];
+            cladeCodes[row] = cladeCodes[last];
+            lifespanUnitCodes[row] = lifespanUnitCodes[last];
+            lengthUnitCodes[row] = lengthUnitCodes[last];
+            genusSpecies[row] = genusSpecies[last];
+            features[row] = features[last];
+            rowOfId[ids[row]] = row;
+        }
+        //let the strings of the old last row be collected
+        genusSpecies[last] = null;
+        features[last] = null;
+        size = last;
+        return removed;
+    }
+
+    /**
+     * Removes every organism with an ID in the collection, see removeOrganismsIf.
+     *
+     * @param ids the IDs to remove, IDs that don't exist are skipped.
+     * @return the number of organisms removed.
+     */
+    public int removeOrganisms(Collection<String> ids) {
+        boolean[] remove = new boolean[size];
+        int marked = 0;
+        for (String id : ids) {
+            int row = rowOf(id);
+            if (row >= 0 && !remove[row]) {
+                remove[row] = true;
+                marked++;
+            }
+        }
+        return marked == 0 ? 0 : compact(remove);
+    }
+
+    /**
+     * Removes every organism that matches a filter. Unlike removeOrganism, the rows that are kept stay in
+     * their order: they are moved down over the removed ones in a single pass over the columns.
+     *
+     * @param filter which organisms to remove, it is given a new Organism built from each row.
+     * @return the number of organisms removed.
+     */
+    public int removeOrganismsIf(Predicate<? super Organism> filter) {
+        boolean[] remove = new boolean[size];
+        for (int row = 0; row < size; row++) {
+            remove[row] = filter.test(organismAt(row));
+        }
+        return compact(remove);
+    }
+
+    /**
+     * Drops the marked rows by copying each kept row down to the next free row.
+     *
+     * @param remove true for each row to drop.
+     * @return the number of rows dropped.
+     */
+    private int compact(boolean[] remove) {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (remove[row]) {
+                rowOfId[ids[row]] = -1;
+                continue;
+            }
+            if (kept != row) {
+                ids[kept] = ids[row];
+                lifespans[kept] = lifespans[row];
+                lengths[kept] = lengths[row];
+                lengthsCentimeters[kept] = lengthsCentimeters[row];
+                cladeCodes[kept] = cladeCodes[row];
+                lifespanUnitCodes[kept] = lifespanUnitCodes[row];
+                lengthUnitCodes[kept] = lengthUnitCodes[row];
+                genusSpecies[kept] = genusSpecies[row];
+                features[kept] = features[row];
+                rowOfId[ids[kept]] = kept;
+            }
+            kept++;
+        }
+        //let the strings of the rows past the end be collected
+        Arrays.fill(genusSpecies, kept, size, null);
+        Arrays.fill(features, kept, size, null);
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Updates a specific attribute of an organism, with the same attribute names and checks as
+     * OrganismManager.updateOrganism. Nothing changes if the new value is invalid.
+     *
+     * @param id the organism ID.
+     * @param attribute the field to update.
+     * @param newValue the new value to assign to the attribute.
+     * @return true if the update was successful; false if not found or invalid attribute or value.
+     */
+    public boolean updateOrganism(String id, String attribute, String newValue) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return false;
+        }
+        Organism organism = organismAt(row);
+        return OrganismManager.applyUpdate(organism, attribute, newValue) && writeRow(row, organism);
+    }
+
+    /**
+     * @return a new list of all organisms, built from the rows in row order.
+     */
+    public List<Organism> getOrganisms() {
+        List<Organism> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Builds each organism in turn and hands it to the action, without making a list of all of them.
+     *
+     * @param action called once per organism, in row order.
+     */
+    public void forEach(Consumer<Organism> action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(organismAt(row));
+        }
+    }
+
+    /**
+     * Finds organisms with a query. Terms on the ID, the numbers and the dictionary coded fields are checked
+     * against the columns directly, so an Organism is only built for rows that pass them; only terms on genus
+     * and features need the built organism.
+     *
+     * @param query the filter, order, limit and offset.
+     * @return the matching organisms in the query's order.
+     */
+    public List<Organism> query(OrganismQuery query) {
+        OrganismQuery.Selector selector = query.selector();
+        OrganismFilter filter = query.getFilter();
+        List<RowTest> tests = new ArrayList<>();
+        List<OrganismFilter.Term> rest = new ArrayList<>();
+        int from = 0;
+        int to = size;
+        if (filter != null) {
+            for (OrganismFilter.Term term : filter.getTerms()) {
+                if (term.field == QueryField.ID && term.op == OrganismFilter.Op.EQUALS) {
+                    //one row at most, scan just that one
+                    int row = rowOf((String) term.value);
+                    if (row < 0) {
+                        return selector.result();
+                    }
+                    from = Math.max(from, row);
+                    to = Math.min(to, row + 1);
+                    continue;
+                }
+                RowTest test = rowTest(term);
+                if (test == NO_ROWS) {
+                    return selector.result();
+                }
+                if (test != null) {
+                    tests.add(test);
+                } else {
+                    rest.add(term);
+                }
+            }
+        }
+
+        rows:
+        for (int row = from; row < to; row++) {
+            for (RowTest test : tests) {
+                if (!test.test(row)) {
+                    continue rows;
+                }
+            }
+            Organism organism = organismAt(row);
+            for (OrganismFilter.Term term : rest) {
+                if (!term.test(organism)) {
+                    continue rows;
+                }
+            }
+            selector.offer(organism);
+        }
+        return selector.result();
+    }
+
+    /**
+     * A check of one term against a row's columns.
+     */
+    @FunctionalInterface
+    private interface RowTest {
+        boolean test(int row);
+    }
+
+    /** Returned by rowTest when no row can match, like a clade that isn't in the dictionary. */
+    private static final RowTest NO_ROWS = row -> false;
+
+    /**
+     * @return a check that reads the columns, NO_ROWS, or null if the term needs the whole organism.
+     */
+    private RowTest rowTest(OrganismFilter.Term term) {
+        if (term.field.isNumeric()) {
+            double value = (Double) term.value;
+            switch (term.field) {
+                case LIFESPAN:
+                    return row -> term.matches(Double.compare(lifespans[row], value));
+                case AVERAGE_LENGTH:
+                    return row -> term.matches(Double.compare(lengths[row], value));
+                default:
+                    return row -> term.matches(Double.compare(lengthsCentimeters[row], value));
+            }
+        }
+        if (term.op != OrganismFilter.Op.EQUALS || !term.field.isCategory()) {
+            return null;
+        }
+        switch (term.field) {
+            case CLADE: {
+                int code = clades.find((String) term.value);
+                return code < 0 ? NO_ROWS : row -> cladeCodes[row] == code;
+            }
+            case LIFESPAN_UNIT: {
+                int code = lifespanUnits.find((String) term.value);
+                return code < 0 ? NO_ROWS : row -> lifespanUnitCodes[row] == code;
+            }
+            default: {
+                int code = lengthUnits.find((String) term.value);
+                return code < 0 ? NO_ROWS : row -> lengthUnitCodes[row] == code;
+            }
+        }
+    }
+
+    /**
+     * Calculates the average length in cm of organisms belonging to a clade by scanning the length columns.
+     *
+     * @param clade the clade to calculate.
+     * @return the average length in centimeters, or 0 if no organisms match.
+     */
+    public float getAvg(String clade) {
+        int code = clades.find(clade);
+        if (code < 0) {
+            return 0;
+        }
+        double sum = 0;
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (cladeCodes[row] == code) {
+                sum += lengthsCentimeters[row];
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (float) (sum / count);
+    }
+
+    /**
+     * Calculates the average length in cm of every clade in one pass over the columns.
+     *
+     * @return clade name to average length in centimeters, in the order the clades were first added.
+     */
+    public Map<String, Float> getAverageLengthByClade() {
+        double[] sums = new double[clades.size()];
+        int[] counts = new int[clades.size()];
+        for (int row = 0; row < size; row++) {
+            int code = cladeCodes[row];
+            sums[code] += lengthsCentimeters[row];
+            counts[code]++;
+        }
+
+        Map<String, Float> averages = new LinkedHashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            //clades whose organisms were all removed stay in the dictionary but aren't shown
+            if (counts[code] > 0) {
+                averages.put(clades.decode(code), (float) (sums[code] / counts[code]));
+            }
+        }
+        return averages;
+    }
+
+    /**
+     * Prints the average organism length for each clade in centimeters, like OrganismManager.
+     *
+     * @return true if organisms exist and results were displayed; false if there are none.
+     */
+    public boolean displayAverageLengthByClade() {
+        if (size == 0) {
+            System.out.println("No organisms available.");
+            return false;
+        }
+        for (Map.Entry<String, Float> entry : getAverageLengthByClade().entrySet()) {
+            System.out.printf("Clade: %s | Average Length: %.2f cm%n", entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Builds an Organism from a row.
+     */
+    private Organism organismAt(int row) {
+        return new Organism(formatId(ids[row]), clades.decode(cladeCodes[row]), genusSpecies[row],
+                lifespans[row], lifespanUnits.decode(lifespanUnitCodes[row]), features[row], lengths[row],
+                lengthUnits.decode(lengthUnitCodes[row]));
+    }
+
+    /**
+     * Writes every attribute except the ID into a row.
+     *
+     * @return false if a clade or unit is new and its dictionary is full, then the row is left as it was.
+     */
+    private boolean writeRow(int row, Organism organism) {
+        int clade = clades.encode(organism.getCladeName());
+        int lifespanUnit = lifespanUnits.encode(organism.getLifespanUnit());
+        int lengthUnit = lengthUnits.encode(organism.getLengthUnit());
+        if (clade < 0 || lifespanUnit < 0 || lengthUnit < 0) {
+            logger.warn("Failed to store organism {}: too many distinct clades or units", organism.getId());
+            return false;
+        }
+        cladeCodes[row] = (short) clade;
+        lifespanUnitCodes[row] = (byte) lifespanUnit;
+        lengthUnitCodes[row] = (byte) lengthUnit;
+        lifespans[row] = organism.getLifespanEstimate();
+        lengths[row] = organism.getAverageLength();
+        lengthsCentimeters[row] = organism.getLengthCentimeters();
+        genusSpecies[row] = organism.getGenusSpecies();
+        features[row] = organism.getDefinitiveFeatures();
+        return true;
+    }
+
+    /**
+     * @return the row of the ID, or -1 if it isn't stored or isn't a 5 digit number.
+     */
+    private int rowOf(String id) {
+        int idNumber = parseId(id);
+        return idNumber < 0 ? -1 : rowOfId[idNumber];
+    }
+
+    /**
+     * @return the number in a 5 digit ID, or -1 if it isn't one.
+     */
+    private static int parseId(String id) {
+        if (id == null || id.length() != 5) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return the number as a 5 digit ID, without the cost of String.format.
+     */
+    private static String formatId(int idNumber) {
+        char[] digits = new char[5];
+        for (int i = 4; i >= 0; i--) {
+            digits[i] = (char) ('0' + idNumber % 10);
+            idNumber /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        lifespans = Arrays.copyOf(lifespans, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        lengthsCentimeters = Arrays.copyOf(lengthsCentimeters, capacity);
+        cladeCodes = Arrays.copyOf(cladeCodes, capacity);
+        lifespanUnitCodes = Arrays.copyOf(lifespanUnitCodes, capacity);
+        lengthUnitCodes = Arrays.copyOf(lengthUnitCodes, capacity);
+        genusSpecies = Arrays.copyOf(genusSpecies, capacity);
+        features = Arrays.copyOf(features, capacity);
+    }
+}
@@ -0,0 +1,50 @@
+package com.organism;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarOrganismStoreTest {
+
+    ColumnarOrganismStore store;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        store = new ColumnarOrganismStore();
+        store.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years",
+                "extinct, prehistoric", 50.5F, "m"));
+        store.addOrganism(new Organism("00022", "Lycophyta", "Sigillaria", 20, "years",
+                "extinct", 500F, "cm"));
+        store.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years",
+                "fur", 1300F, "mm"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void organismsRoundTrip() {
+        Organism organism = store.getOrganism("00021");
+        assertEquals("Lepidodendron", organism.getGenusSpecies());
+        assertEquals(15, organism.getLifespanEstimate());
+        assertEquals(50.5F, organism.getAverageLength());
+        assertEquals("m", organism.getLengthUnit());
+        assertTrue(store.idDuplicate("00100"));
+        assertFalse(store.addOrganism(new Organism("00100", "Aves", "Aquila", 30, "years", "wings", 80F, "cm")));
+        assertFalse(store.addOrganism(new Organism("ABCDE", "Aves", "Aquila", 30, "years", "wings", 80F, "cm")));
+    }
+
+    @org.junit.jupiter.api.Test
+    void removeMovesLastRow() {
+        assertEquals("00021", store.removeOrganism("00021").getId());
+        assertNull(store.getOrganism("00021"));
+        //00100 was the last row and is now in the freed one
+        assertEquals("Canis lupus", store.getOrganism("00100").getGenusSpecies());
+        assertEquals(2, store.size());
+    }
+
+    @org.junit.jupiter.api.Test
+    void cladeAveragesInCentimeters() {
+        assertEquals(2775F, store.getAvg("Lycophyta"), 0.01);
+        assertEquals(130F, store.getAverageLengthByClade().get("Mammalia"), 0.01);
+
+        assertTrue(store.updateOrganism("00100", "clade", "Lycophyta"));
+        assertEquals(1893.33F, store.getAvg("Lycophyta"), 0.01);
+        assertFalse(store.getAverageLengthByClade().containsKey("Mammalia"));
+    }
+}
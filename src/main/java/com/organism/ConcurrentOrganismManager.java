@@ -0,0 +1,253 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Thread safe version of OrganismManager for when several worker threads share one catalog.
+ *
+ * Organisms are kept in a ConcurrentHashMap keyed by ID, so reads never lock and writes only lock the one map bin
+ * they touch. Adding is a single putIfAbsent, which replaces the idDuplicate then add sequence that two threads
+ * could both pass at once.
+ *
+ * Organisms stored here are never changed in place: an update swaps in a changed copy. So every organism handed out
+ * is consistent, and getOrganisms can return a snapshot without stopping writers. The clade totals are updated
+ * atomically per clade just after the organism map, so a reader can briefly see an organism before its length is
+ * counted in the clade average.
+ */
+public class ConcurrentOrganismManager {
+    private static final Logger logger = LogManager.getLogger(ConcurrentOrganismManager.class);
+
+    private final ConcurrentHashMap<String, Organism> organisms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CladeTotal> cladeTotals = new ConcurrentHashMap<>();
+
+    /**
+     * Sum of lengths (in cm) and number of organisms for one clade. Never changed after it is made,
+     * a new one replaces it on every change.
+     */
+    private static final class CladeTotal {
+        final double sumCentimeters;
+        final int count;
+
+        CladeTotal(double sumCentimeters, int count) {
+            this.sumCentimeters = sumCentimeters;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the organisms sorted by ID. Changes made after the call are not seen in the list.
+     *
+     * @return a new list containing all stored organisms.
+     */
+    public List<Organism> getOrganisms() {
+        List<Organism> snapshot = new ArrayList<>(organisms.values());
+        snapshot.sort(Comparator.comparing(Organism::getId));
+        return snapshot;
+    }
+
+    /**
+     * @return the number of organisms stored.
+     */
+    public int size() {
+        return organisms.size();
+    }
+
+    /**
+     * Looks up an organism by its ID. The organism must not be changed, use updateOrganism instead.
+     *
+     * @param id the organism ID.
+     * @return the organism with that ID, or null if it doesn't exist.
+     */
+    public Organism getOrganism(String id) {
+        return organisms.get(id);
+    }
+
+    /**
+     * Checks if an ID is in use. Only a hint when other threads are writing, use addOrganism's result to
+     * find out if an add really happened.
+     *
+     * @param id the ID to check.
+     * @return true if an organism with the ID exists.
+     */
+    public boolean idDuplicate(String id) {
+        return organisms.containsKey(id);
+    }
+
+    /**
+     * Adds an organism if no organism has its ID yet. The check and the add happen as one step.
+     * The organism must not be changed after it is added.
+     *
+     * @param organism the organism to be added.
+     * @return true if the organism was added; false if it's invalid or its ID is taken.
+     */
+    public boolean addOrganism(Organism organism) {
+        if (organism == null || organism.getId() == null || organism.getId().length() != 5) {
+            logger.warn("Failed add: invalid organism or ID format");
+            return false;
+        }
+        if (organisms.putIfAbsent(organism.getId(), organism) != null) {
+            logger.debug("Failed add: duplicate ID {}", organism.getId());
+            return false;
+        }
+        changeCladeTotal(organism, 1);
+        logger.debug("Organism added: {}", organism.getId());
+        return true;
+    }
+
+    /**
+     * Removes an organism by its ID.
+     *
+     * @param id the organism ID.
+     * @return the removed organism, or null if it doesn't exist.
+     */
+    public Organism removeOrganism(String id) {
+        Organism removed = organisms.remove(id);
+        if (removed == null) {
+            logger.debug("Remove failed: no organism found with ID {}", id);
+            return null;
+        }
+        changeCladeTotal(removed, -1);
+        logger.debug("Organism removed: {}", id);
+        return removed;
+    }
+
+    /**
+     * Updates a specific attribute of an organism. A changed copy replaces the stored organism,
+     * so threads reading the old one are not affected. Nothing changes if the new value is invalid.
+     *
+     * @param id the organism ID.
+     * @param attribute the field to update, the same names as OrganismManager.updateOrganism.
+     * @param newValue the new value to assign to the attribute.
+     * @return true if the update was successful; false if not found or invalid attribute or value.
+     */
+    public boolean updateOrganism(String id, String attribute, String newValue) {
+        Organism[] replaced = new Organism[2];
+        organisms.computeIfPresent(id, (key, old) -> {
+            Organism copy = new Organism(old);
+            if (!OrganismManager.applyUpdate(copy, attribute, newValue)) {
+                return old;
+            }
+            replaced[0] = old;
+            replaced[1] = copy;
+            return copy;
+        });
+        if (replaced[0] == null) {
+            logger.debug("Update failed for ID {} | Attribute: {}", id, attribute);
+            return false;
+        }
+        changeCladeTotal(replaced[0], -1);
+        changeCladeTotal(replaced[1], 1);
+        return true;
+    }
+
+    /**
+     * Adds or takes away one organism's length in its clade total, as one atomic step for that clade.
+     * The clade is dropped once it has no organisms left. A remove can get here before the add it races with,
+     * so the count may be below zero for a moment.
+     *
+     * @param organism the organism being added or removed.
+     * @param sign 1 to add the organism, -1 to take it away.
+     */
+    private void changeCladeTotal(Organism organism, int sign) {
+        double centimeters = sign * organism.getLengthCentimeters();
+        cladeTotals.compute(organism.getCladeName(), (clade, total) -> {
+            double sum = (total == null ? 0 : total.sumCentimeters) + centimeters;
+            int count = (total == null ? 0 : total.count) + sign;
+            return count == 0 ? null : new CladeTotal(sum, count);
+        });
+    }
+
+    /**
+     * Calculates the average length in cm of organisms belonging to a clade.
+     *
+     * @param clade the clade to calculate.
+     * @return the average length in centimeters, or 0 if no organisms match.
+     */
+    public float getAvg(String clade) {
+        CladeTotal total = cladeTotals.get(clade);
+        if (total == null || total.count <= 0) {
+            return 0;
+        }
+        return (float) (total.sumCentimeters / total.count);
+    }
+
+    /**
+     * Finds organisms with a query, over the organisms stored when each one is reached.
+     *
+     * @param query the filter, order, limit and offset.
+     * @return the matching organisms in the query's order.
+     */
+    public List<Organism> query(OrganismQuery query) {
+        return query.run(organisms.values());
+    }
+
+    /**
+     * Prints a snapshot of all organisms sorted by ID, in the same layout as OrganismManager.
+     */
+    public void displayOrganisms() {
+        OrganismManager.printOrganisms(getOrganisms());
+    }
+
+    /**
+     * Prints the average organism length for each clade in centimeters.
+     *
+     * @return true if organisms exist and results were displayed; false if there are none.
+     */
+    public boolean displayAverageLengthByClade() {
+        if (organisms.isEmpty()) {
+            System.out.println("No organisms available.");
+            return false;
+        }
+        for (Map.Entry<String, CladeTotal> entry : cladeTotals.entrySet()) {
+            CladeTotal total = entry.getValue();
+            if (total.count > 0) {
+                float avg = (float) (total.sumCentimeters / total.count);
+                System.out.printf("Clade: %s | Average Length: %.2f cm%n", entry.getKey(), avg);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads organisms from a text or JSON file, with the same formats, checks and messages as OrganismManager.loadFile.
+     * Other threads can keep reading and writing while the file loads.
+     *
+     * @param filePath the path to the file to load.
+     * @return a message with the result or the error that occurred.
+     */
+    public String loadFile(String filePath) {
+        logger.info("File load started: {}", filePath);
+
+        try (OrganismSource parser = OrganismSource.open(Paths.get(filePath))) {
+            int added = 0;
+            while (parser.next()) {
+                long lineNum = parser.getLineNumber();
+                if (parser.getError() != null) {
+                    logger.error("Line {} invalid: {}", lineNum, parser.getError().getMessage());
+                    return parser.getError().toString();
+                }
+                //putIfAbsent does the duplicate check, so another thread can't slip in the same ID
+                if (!addOrganism(parser.getOrganism())) {
+                    logger.warn("Duplicate ID found at line {}", lineNum);
+                    return "Line " + lineNum + ": has a duplicate ID.";
+                }
+                added++;
+            }
+            logger.info("File load completed. Total lines: {}", parser.getLineNumber());
+            return "File uploaded correctly. " + added + " organisms were successfully added.";
+
+        } catch (IOException e) {
+            logger.error("File read failure: {}", filePath, e);
+            return "Error reading file: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.organism;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentOrganismManagerTest {
+
+    ConcurrentOrganismManager manage;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        manage = new ConcurrentOrganismManager();
+    }
+
+    @org.junit.jupiter.api.Test
+    void onlyOneThreadAddsEachId() throws Exception {
+        int threads = 8;
+        AtomicInteger added = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = pool.submit(() -> {
+                    //every thread tries to add the same 1000 IDs
+                    for (int i = 0; i < 1000; i++) {
+                        Organism organism = new Organism(String.format("%05d", i), "Clade" + (i % 4), "Genus species",
+                                10, "years", "none", 10, "cm");
+                        if (manage.addOrganism(organism)) {
+                            added.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1000, added.get());
+        assertEquals(1000, manage.getOrganisms().size());
+        assertEquals(10.0f, manage.getAvg("Clade0"), 0.001);
+    }
+
+    @org.junit.jupiter.api.Test
+    void updateReplacesOrganism() {
+        Organism organism = new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years",
+                "extinct, prehistoric", 50.5F, "m");
+        manage.addOrganism(organism);
+
+        assertTrue(manage.updateOrganism("00021", "average length", "2"));
+        assertFalse(manage.updateOrganism("00021", "lengthunit", "km"));
+
+        //the organism that was added is not changed, the manager holds an updated copy
+        assertEquals(50.5F, organism.getAverageLength());
+        assertEquals(2F, manage.getOrganism("00021").getAverageLength());
+        assertEquals("m", manage.getOrganism("00021").getLengthUnit());
+        assertEquals(200F, manage.getAvg("Lycophyta"), 0.001);
+    }
+}
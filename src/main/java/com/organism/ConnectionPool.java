@@ -0,0 +1,186 @@
+package com.organism;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A small fixed-size connection pool for the SQLite database.
+ *
+ * Opening a SQLite connection reopens the file and throws away its page cache, so the DatabaseHelper
+ * borrows long-lived connections from here instead of calling DriverManager on every operation.
+ * Connections are opened lazily up to the pool size, health checked when they have been idle for a while,
+ * and all closed together on shutdown.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(ConnectionPool.class);
+
+    /** How long a connection can sit idle before it is checked again when borrowed. */
+    private static final long IDLE_CHECK_MILLIS = 30_000;
+    /** Seconds to wait for Connection.isValid during a health check. */
+    private static final int HEALTH_CHECK_SECONDS = 2;
+    /** Seconds to wait for a free connection before giving up. */
+    private static final int BORROW_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final int size;
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool for the given JDBC url. No connections are opened until they are needed.
+     *
+     * @param url JDBC url of the database, for example jdbc:sqlite:organisms.db.
+     * @param size the maximum number of open connections, at least 1.
+     */
+    public ConnectionPool(String url, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.url = url;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if the pool isn't full yet.
+     * Closing the returned PooledConnection gives it back to the pool.
+     *
+     * @return a healthy pooled connection.
+     * @throws SQLException if the pool is closed, no connection frees up in time, or opening one fails.
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        PooledConnection pooled = idle.poll();
+        if (pooled == null) {
+            pooled = openIfRoom();
+        }
+        if (pooled == null) {
+            try {
+                pooled = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (pooled == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+        }
+        if (!isHealthy(pooled)) {
+            logger.warn("Replacing unhealthy database connection");
+            discard(pooled);
+            pooled = openIfRoom();
+            if (pooled == null) {
+                throw new SQLException("Could not reopen a database connection");
+            }
+        }
+        return pooled;
+    }
+
+    /**
+     * Puts a connection back in the pool. Any transaction left open is rolled back first.
+     * If the pool has been closed, the connection is closed instead.
+     *
+     * @param pooled the connection being returned.
+     */
+    void release(PooledConnection pooled) {
+        pooled.touch();
+        try {
+            if (!pooled.getConnection().getAutoCommit()) {
+                pooled.getConnection().rollback();
+                pooled.getConnection().setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.warn("Dropping connection that could not be reset", e);
+            discard(pooled);
+            return;
+        }
+        if (closed || !idle.offer(pooled)) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Returns the maximum number of connections this pool will open.
+     *
+     * @return the pool size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Closes every idle connection and their cached statements. Connections that are still borrowed
+     * are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            discard(pooled);
+        }
+        logger.info("Connection pool closed for {}", url);
+    }
+
+    /**
+     * Opens a new connection if fewer than size connections exist.
+     *
+     * @return the new connection, or null if the pool is already full.
+     * @throws SQLException if the connection can't be opened.
+     */
+    private PooledConnection openIfRoom() throws SQLException {
+        synchronized (all) {
+            if (all.size() >= size) {
+                return null;
+            }
+            PooledConnection pooled = new PooledConnection(this, DriverManager.getConnection(url));
+            all.add(pooled);
+            logger.debug("Opened pooled connection {} of {}", all.size(), size);
+            return pooled;
+        }
+    }
+
+    /**
+     * Checks a connection that has been idle for a while with Connection.isValid.
+     *
+     * @param pooled the connection to check.
+     * @return true if the connection can be used.
+     */
+    private boolean isHealthy(PooledConnection pooled) {
+        try {
+            if (pooled.getConnection().isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - pooled.getLastUsed() < IDLE_CHECK_MILLIS) {
+                return true;
+            }
+            return pooled.getConnection().isValid(HEALTH_CHECK_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes a connection for good and frees its slot in the pool.
+     *
+     * @param pooled the connection to close.
+     */
+    private void discard(PooledConnection pooled) {
+        synchronized (all) {
+            all.remove(pooled);
+        }
+        pooled.closeQuietly();
+    }
+}
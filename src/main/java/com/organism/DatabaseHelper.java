@@ -3,14 +3,62 @@ package com.organism;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 /**
  * Database Helper class to connect the interface to the database.
  *
  * It connects to a SQLite db chosen and adds all the CRUD methods and custom method to interact with the database.
  */
-public class DatabaseHelper {
+public class DatabaseHelper implements AutoCloseable {
+    /** Number of pooled connections used when no size is given. */
+    public static final int DEFAULT_POOL_SIZE = 4;
+    /** Number of rows per batch and transaction for bulk imports when no size is given. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    //fixed SQL statements, these get prepared once per pooled connection and reused
+    private static final String INSERT_SQL = "INSERT INTO Organisms (organism_id, clade, species, lifespan, lifespan_unit, features, average_length, length_unit, length_cm) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"; //placeholder for the values about to be added
+    //RETURNING hands back the deleted or updated row so the table can update just that row
+    private static final String DELETE_SQL = "DELETE FROM Organisms WHERE organism_id = ? RETURNING *";
+    //IDs per DELETE ... IN (...) statement for bulk deletes, well under SQLite's parameter limit
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final String DELETE_IN_SQL = "DELETE FROM Organisms WHERE organism_id IN ("
+            + String.join(", ", Collections.nCopies(DELETE_CHUNK_SIZE, "?")) + ") RETURNING organism_id";
+    //length_cm is the length already converted to centimeters, so the average is a plain AVG
+    private static final String AVERAGE_BY_CLADE_SQL = "SELECT clade, AVG(length_cm) AS avg_length FROM Organisms GROUP BY clade";
+    private static final String SELECT_ALL_SQL = "SELECT * FROM Organisms";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM Organisms";
+    //keyset paging, each page starts after the last ID of the page before it
+    private static final String FIRST_PAGE_SQL = "SELECT * FROM Organisms ORDER BY organism_id LIMIT ?";
+    private static final String PAGE_AFTER_SQL = "SELECT * FROM Organisms WHERE organism_id > ? ORDER BY organism_id LIMIT ?";
+    private static final String COUNT_BEFORE_SQL = "SELECT COUNT(*) FROM Organisms WHERE organism_id < ?";
+    private static final String PAGE_AT_SQL = "SELECT * FROM Organisms ORDER BY organism_id LIMIT ? OFFSET ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT * FROM Organisms WHERE organism_id = ?";
+    private static final String EXISTS_SQL = "SELECT 1 FROM Organisms WHERE organism_id = ?";
+    private static final String SELECT_IDS_SQL = "SELECT organism_id FROM Organisms";
+    private static final String EXPORT_SQL = "SELECT * FROM Organisms ORDER BY rowid";
+    /** Rows the driver reads ahead while exporting. */
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    //full text search, bm25 ranks lower scores first and weights the species column double
+    private static final String SEARCH_SQL = "SELECT Organisms.* FROM organisms_fts "
+            + "JOIN Organisms ON Organisms.rowid = organisms_fts.rowid WHERE organisms_fts MATCH ? "
+            + "ORDER BY bm25(organisms_fts, 1.0, 2.0, 1.0), Organisms.organism_id LIMIT ?";
+    //batch UPDATE statements by the bit mask of the fields they set, built the first time each set is used
+    private static final String[] UPDATE_FIELDS_SQL = new String[1 << OrganismField.values().length];
+
     private String dbPath;
+    private ConnectionPool pool;
 
     /**
      * Constructor for a DatabaseHelper for the SQLite database path.
@@ -19,22 +67,54 @@ public class DatabaseHelper {
      * @param dbPath path to the SQLite .db file.
      */
     public DatabaseHelper(String dbPath) {
+        this(dbPath, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructor for a DatabaseHelper for the SQLite database path with a set number of pooled connections.
+     * Then, loads the SQLite JDBC driver.
+     *
+     * @param dbPath path to the SQLite .db file.
+     * @param poolSize the maximum number of connections kept open to the database.
+     */
+    public DatabaseHelper(String dbPath, int poolSize) {
         this.dbPath = dbPath;
         try {
             Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             JOptionPane.showMessageDialog(null, "SQLite JDBC driver not found!", "Error", JOptionPane.ERROR_MESSAGE);
         }
+        this.pool = new ConnectionPool("jdbc:sqlite:" + dbPath, poolSize);
+        migrateSchema();
     }
 
+    /**
+     * Creates the Organisms table and its indexes if they are missing, and upgrades databases
+     * made by older versions. See SchemaManager.
+     */
+    private void migrateSchema() {
+        try (PooledConnection conn = connect()) {
+            SchemaManager.migrate(conn.getConnection());
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(null, "Error upgrading the database:\n" + e.getMessage());
+        }
+    }
 
     /**
-     * Makes a connection to the SQLite db.
-     * @return Connection object.
+     * Borrows a connection to the SQLite db from the pool. Closing it gives it back.
+     * @return PooledConnection object.
      * @throws SQLException if there is an error accessing the db.
      */
-    private Connection connect() throws SQLException {
-        return DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+    private PooledConnection connect() throws SQLException {
+        return pool.borrow();
+    }
+
+    /**
+     * Closes all pooled connections. Call this when the application shuts down.
+     */
+    @Override
+    public void close() {
+        pool.close();
     }
 
     /**
@@ -42,8 +122,8 @@ public class DatabaseHelper {
      * @return true if the db connection works, false if it doesn't.
      */
     public boolean testConnection() {
-        try (Connection conn = connect()) {
-            return conn != null;
+        try (PooledConnection conn = connect()) {
+            return conn.getConnection().isValid(0);
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(null, "Failed to connect to database:\n" + e.getMessage(),
                     "Connection Error", JOptionPane.ERROR_MESSAGE);
@@ -62,15 +142,12 @@ public class DatabaseHelper {
      * @param features key definitive features.
      * @param avgLength average length, positive float.
      * @param lengthUnit unit of length mm, cm, m.
-     * @return true if the organism was added successfully; false if not.
+     * @return the added organism if it was added successfully; null if not.
      */
-    public boolean addOrganism(String id, String clade, String genus, int lifespan, String lifespanUnit,
+    public Organism addOrganism(String id, String clade, String genus, int lifespan, String lifespanUnit,
                                String features, float avgLength, String lengthUnit) {
-        String sql = "INSERT INTO Organisms (organism_id, clade, species, lifespan, lifespan_unit, features, average_length, length_unit) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)"; //placeholder for the values about to be added
-
-        try (Connection conn = connect();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(INSERT_SQL);
             //here the values to be added are collected
             ps.setString(1, id);
             ps.setString(2, clade);
@@ -80,11 +157,44 @@ public class DatabaseHelper {
             ps.setString(6, features);
             ps.setFloat(7, avgLength);
             ps.setString(8, lengthUnit);
+            ps.setFloat(9, OrganismManager.toCentimeters(avgLength, lengthUnit));
             ps.executeUpdate();
 
-            return true;
+            return new Organism(id, clade, genus, lifespan, lifespanUnit, features, avgLength, lengthUnit);
         } catch (SQLException e) {
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Opens a bulk import session. Organisms added to it are inserted in batches of batchSize rows,
+     * with each batch committed as a single transaction. Rows that fail validation or already exist are
+     * reported as rejects instead of stopping the import.
+     *
+     * @param batchSize number of rows per batch and transaction.
+     * @param fastLoad true to use synchronous=NORMAL on the import's connection while it runs.
+     * @return the open import session, which must be finished or closed.
+     * @throws SQLException if a connection can't be borrowed or the transaction can't start.
+     */
+    public BulkImport openBulkImport(int batchSize, boolean fastLoad) throws SQLException {
+        return new BulkImport(connect(), batchSize, fastLoad);
+    }
+
+    /**
+     * Inserts every organism from the iterator using a bulk import session.
+     *
+     * @param rows the organisms to insert.
+     * @param batchSize number of rows per batch and transaction.
+     * @param fastLoad true to use synchronous=NORMAL on the import's connection while it runs.
+     * @return the number of inserted rows and the rejected ones.
+     * @throws SQLException if a batch fails to execute or commit.
+     */
+    public BulkImportResult importOrganisms(Iterator<Organism> rows, int batchSize, boolean fastLoad) throws SQLException {
+        try (BulkImport bulkImport = openBulkImport(batchSize, fastLoad)) {
+            while (rows.hasNext()) {
+                bulkImport.add(rows.next());
+            }
+            return bulkImport.finish();
         }
     }
 
@@ -92,18 +202,88 @@ public class DatabaseHelper {
      * Deletes an organism from the db by its ID.
      *
      * @param id, 5-digit ID that exists.
-     * @return true if deletion was successful, false if not.
+     * @return the deleted organism if deletion was successful, null if there is no organism with that ID.
+     * @throws SQLException if the delete fails.
      */
-    public boolean deleteOrganism(String id) {
-        String sql = "DELETE FROM Organisms WHERE organism_id = ?";
-        try (Connection conn = connect();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    public Organism deleteOrganism(String id) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(DELETE_SQL);
             ps.setString(1, id);
-            int rows = ps.executeUpdate();
-            return rows > 0;
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(null, "Error deleting organism:\n" + e.getMessage());
-            return false;
+            return readSingleOrganism(ps);
+        }
+    }
+
+    /**
+     * Deletes every organism with an ID in the collection, in one transaction. The IDs go to SQLite in
+     * chunks of DELETE_CHUNK_SIZE per DELETE ... IN statement, so a purge of many thousands of rows runs a few
+     * dozen statements instead of one per row.
+     *
+     * @param ids the IDs to delete, IDs that don't exist are skipped.
+     * @return the IDs that were deleted.
+     * @throws SQLException if a delete fails, then nothing is deleted.
+     */
+    public List<String> deleteOrganisms(Collection<String> ids) throws SQLException {
+        List<String> deleted = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return deleted;
+        }
+        String[] chunk = new String[DELETE_CHUNK_SIZE];
+        try (PooledConnection conn = connect()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement ps = conn.prepare(DELETE_IN_SQL);
+                Iterator<String> it = ids.iterator();
+                while (it.hasNext()) {
+                    int count = 0;
+                    while (count < DELETE_CHUNK_SIZE && it.hasNext()) {
+                        chunk[count++] = it.next();
+                    }
+                    //the last chunk repeats its last ID to fill the list, so every chunk uses the same statement
+                    for (int i = 0; i < DELETE_CHUNK_SIZE; i++) {
+                        ps.setString(i + 1, chunk[Math.min(i, count - 1)]);
+                    }
+                    readIds(ps, deleted);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every organism that matches a filter with one DELETE statement, like a whole clade or everything
+     * shorter than a length. Those filters use the clade and length_cm indexes.
+     *
+     * @param filter which organisms to delete.
+     * @return the IDs that were deleted.
+     * @throws SQLException if the delete fails, then nothing is deleted.
+     */
+    public List<String> deleteOrganismsWhere(OrganismFilter filter) throws SQLException {
+        List<String> deleted = new ArrayList<>();
+        //the SQL changes with the filter, so it isn't kept in the statement cache
+        try (PooledConnection conn = connect();
+             PreparedStatement ps = conn.getConnection().prepareStatement(
+                     "DELETE FROM Organisms WHERE " + filter.getSql() + " RETURNING organism_id")) {
+            filter.bind(ps, 1);
+            readIds(ps, deleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Runs a statement that returns organism IDs and adds them to a list.
+     */
+    private static void readIds(PreparedStatement ps, List<String> ids) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
         }
     }
 
@@ -113,9 +293,11 @@ public class DatabaseHelper {
      * @param id Organism id to choose.
      * @param column the attribute the user wants to update.
      * @param newValue New value for the attribute.
-     * @return true for a successful update, false if unsuccessful.
+     * @return the updated organism for a successful update, null if there is no organism with that ID.
+     * @throws IllegalArgumentException if the column is unknown or the value isn't valid for it.
+     * @throws SQLException if the update fails.
      */
-    public boolean updateOrganism(String id, String column, String newValue) {
+    public Organism updateOrganism(String id, String column, String newValue) throws SQLException {
         String dbColumn;
         // switch case for attribute names to  database column names
         switch (column.toLowerCase()) {
@@ -142,8 +324,7 @@ public class DatabaseHelper {
                 dbColumn = "length_unit";
                 break;
             default:
-                JOptionPane.showMessageDialog(null, "Unknown column: " + column);
-                return false;
+                throw new IllegalArgumentException("Unknown column: " + column);
         }
 
         // Make sure numeric values are positive and numbers
@@ -152,8 +333,7 @@ public class DatabaseHelper {
                 int val = Integer.parseInt(newValue);
                 if (val <= 0) throw new NumberFormatException();
             } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(null, "Lifespan must be a positive integer.");
-                return false;
+                throw new IllegalArgumentException("Lifespan must be a positive integer.");
             }
         }
 
@@ -163,63 +343,201 @@ public class DatabaseHelper {
                 float val = Float.parseFloat(newValue);
                 if (val <= 0) throw new NumberFormatException();
             } catch (NumberFormatException e) {
-                JOptionPane.showMessageDialog(null, "Average length must be a positive number.");
-                return false;
+                throw new IllegalArgumentException("Average length must be a positive number.");
             }
         }
         // validate length unit to either m, mm, or cm
         if (dbColumn.equals("length_unit") && !(newValue.equals("mm") || newValue.equals("cm") || newValue.equals("m"))) {
-            JOptionPane.showMessageDialog(null, "Length unit must be mm, cm, or m.");
-            return false;
+            throw new IllegalArgumentException("Length unit must be mm, cm, or m.");
         }
 
-        //sql statement to update the organism
-        String sql = "UPDATE Organisms SET " + dbColumn + " = ? WHERE organism_id = ?";
+        //sql statement to update the organism, length changes also update length_cm from the new value
+        //and the unchanged other half of the length
+        String lengthCm = "";
+        if (dbColumn.equals("average_length")) {
+            lengthCm = ", length_cm = ? * " + String.format(SchemaManager.CENTIMETERS_PER_UNIT, "length_unit");
+        } else if (dbColumn.equals("length_unit")) {
+            lengthCm = ", length_cm = average_length * " + String.format(SchemaManager.CENTIMETERS_PER_UNIT, "?");
+        }
+        String sql = "UPDATE Organisms SET " + dbColumn + " = ?" + lengthCm + " WHERE organism_id = ? RETURNING *";
 
-        try (Connection conn = connect();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(sql);
 
             // make sure the numbers are set to int and float
             if (dbColumn.equals("lifespan")) {
                 ps.setInt(1, Integer.parseInt(newValue));
             } else if (dbColumn.equals("average_length")) {
                 ps.setFloat(1, Float.parseFloat(newValue));
+                ps.setFloat(2, Float.parseFloat(newValue));
             } else {
                 ps.setString(1, newValue);
+                if (dbColumn.equals("length_unit")) {
+                    ps.setString(2, newValue);
+                }
             }
-            ps.setString(2, id); //sets second placeholder in sql statement to id
+            ps.setString(lengthCm.isEmpty() ? 2 : 3, id); //sets last placeholder in sql statement to id
 
-            int rows = ps.executeUpdate();
-            return rows > 0;
+            return readSingleOrganism(ps);
+        }
+    }
 
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(null, "Error updating organism:\n" + e.getMessage());
-            return false;
+    /**
+     * Updates several attributes of several organisms in one transaction.
+     *
+     * Each patch is checked once before anything is written; a patch with a bad value is reported as INVALID and
+     * skipped, the others still go in. Patches for the same ID are merged in order, later values win, and share one
+     * result. The organisms are then grouped by the set of fields they change, and each group runs as one batch
+     * of a prepared UPDATE for that set of columns.
+     *
+     * @param patches the changes to make.
+     * @return one result per patch, in the same order.
+     * @throws SQLException if a batch fails, then nothing from this call is written.
+     */
+    public BatchUpdateResult updateOrganisms(List<OrganismPatch> patches) throws SQLException {
+        BatchUpdateResult result = new BatchUpdateResult();
+        String[] errors = new String[patches.size()];
+        //merged values for each ID, in the order the IDs were first seen
+        Map<String, Map<OrganismField, Object>> changes = new LinkedHashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            OrganismPatch patch = patches.get(i);
+            try {
+                Map<OrganismField, Object> values = patch.parse();
+                changes.computeIfAbsent(patch.getId(), k -> new EnumMap<>(OrganismField.class)).putAll(values);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        //IDs grouped by the fields that change, so each group is one statement
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<OrganismField, Object>> entry : changes.entrySet()) {
+            groups.computeIfAbsent(fieldMask(entry.getValue().keySet()), k -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        Map<String, BatchUpdateResult.Status> statuses = new HashMap<>();
+        try (PooledConnection conn = connect()) {
+            Connection connection = conn.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                for (Map.Entry<Integer, List<String>> group : groups.entrySet()) {
+                    PreparedStatement ps = conn.prepare(updateFieldsSql(group.getKey()));
+                    for (String id : group.getValue()) {
+                        bindUpdate(ps, changes.get(id), id);
+                        ps.addBatch();
+                    }
+                    int[] counts = ps.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        statuses.put(group.getValue().get(i),
+                                counts[i] == 0 ? BatchUpdateResult.Status.NOT_FOUND : BatchUpdateResult.Status.UPDATED);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        for (int i = 0; i < patches.size(); i++) {
+            String id = patches.get(i).getId();
+            if (errors[i] != null) {
+                result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.INVALID, errors[i]));
+            } else if (statuses.get(id) == BatchUpdateResult.Status.UPDATED) {
+                result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.UPDATED, null));
+            } else {
+                result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.NOT_FOUND, "No organism with ID " + id + "."));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a bit mask with the ordinal of each field set.
+     */
+    private static int fieldMask(Iterable<OrganismField> fields) {
+        int mask = 0;
+        for (OrganismField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Builds the UPDATE for a set of fields, or returns the one built before. If the length or its unit changes,
+     * length_cm is set from the new values and the unchanged half already in the row.
+     *
+     * @param mask the fields, as made by fieldMask.
+     * @return the SQL, with one parameter per field, then the length_cm parameters, then the ID.
+     */
+    private static String updateFieldsSql(int mask) {
+        String sql = UPDATE_FIELDS_SQL[mask];
+        if (sql != null) {
+            return sql;
+        }
+        StringBuilder builder = new StringBuilder("UPDATE Organisms SET ");
+        for (OrganismField field : OrganismField.values()) {
+            if ((mask & 1 << field.ordinal()) != 0) {
+                builder.append(field.getColumn()).append(" = ?, ");
+            }
+        }
+        boolean length = (mask & 1 << OrganismField.AVERAGE_LENGTH.ordinal()) != 0;
+        boolean unit = (mask & 1 << OrganismField.LENGTH_UNIT.ordinal()) != 0;
+        if (length || unit) {
+            builder.append("length_cm = ").append(length ? "?" : "average_length").append(" * ")
+                    .append(String.format(SchemaManager.CENTIMETERS_PER_UNIT, unit ? "?" : "length_unit")).append(", ");
+        }
+        builder.setLength(builder.length() - 2);
+        builder.append(" WHERE organism_id = ?");
+        //two threads building the same string at once is harmless
+        sql = builder.toString();
+        UPDATE_FIELDS_SQL[mask] = sql;
+        return sql;
+    }
+
+    /**
+     * Sets the parameters of a statement from updateFieldsSql for one organism.
+     */
+    private static void bindUpdate(PreparedStatement ps, Map<OrganismField, Object> values, String id) throws SQLException {
+        int index = 1;
+        for (Map.Entry<OrganismField, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Integer) {
+                ps.setInt(index++, (Integer) value);
+            } else if (value instanceof Float) {
+                ps.setFloat(index++, (Float) value);
+            } else {
+                ps.setString(index++, (String) value);
+            }
         }
+        if (values.containsKey(OrganismField.AVERAGE_LENGTH)) {
+            ps.setFloat(index++, (Float) values.get(OrganismField.AVERAGE_LENGTH));
+        }
+        if (values.containsKey(OrganismField.LENGTH_UNIT)) {
+            ps.setString(index++, (String) values.get(OrganismField.LENGTH_UNIT));
+        }
+        ps.setString(index, id);
     }
 
     /**
      * Calculation for the average length of organisms buy their clades. Formatted into a string.
      *
      * @return string with the clade names and average length in those clades
+     * @throws SQLException if the query fails.
      */
-    public String getAverageLengthByCladeString() {
+    public String getAverageLengthByCladeString() throws SQLException {
         StringBuilder output = new StringBuilder();
         //sql statement for finding the averages and returning them
-        String sql = "SELECT clade, AVG(average_length) AS avg_length FROM Organisms GROUP BY clade";
-
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PooledConnection conn = connect();
+             ResultSet rs = conn.prepare(AVERAGE_BY_CLADE_SQL).executeQuery()) {
 
             while (rs.next()) {
                 String clade = rs.getString("clade");
                 float avg = rs.getFloat("avg_length");
                 output.append(String.format("Clade: %s | Average Length: %.2f cm%n", clade, avg));
             }
-
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(null, "Error calculating averages:\n" + e.getMessage());
         }
 
         return output.toString();
@@ -229,35 +547,272 @@ public class DatabaseHelper {
      * Gets all the Organisms and puts them in a DefaultTableModel
      *
      * @return DefaultTableModel with all the organisms entered.
+     * @throws SQLException if the query fails.
      */
-    public DefaultTableModel getAllOrganisms() {
+    public DefaultTableModel getAllOrganisms() throws SQLException {
         String[] columns = {"ID", "Clade", "Genus & Species", "Lifespan", "Lifespan Unit", "Features", "Average Length", "Length unit"};
         DefaultTableModel model = new DefaultTableModel(columns, 0);
-        String sql = "SELECT * FROM Organisms";
 
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rset = stmt.executeQuery(sql)) {
+        try (PooledConnection conn = connect();
+             ResultSet rset = conn.prepare(SELECT_ALL_SQL).executeQuery()) {
 
             while (rset.next()) {
                //getting the columns for displaying the table
                 Object[] row = {
                         rset.getString("organism_id"),
-                        rset.getString("clade"),
+                        CategoryDictionary.canonical(rset.getString("clade")),
                         rset.getString("species"),
                         rset.getInt("lifespan"),
-                        rset.getString("lifespan_unit"),
+                        CategoryDictionary.canonical(rset.getString("lifespan_unit")),
                         rset.getString("features"),
                         rset.getFloat("average_length"),
-                        rset.getString("length_unit")
+                        CategoryDictionary.canonical(rset.getString("length_unit"))
                 };
                 model.addRow(row); //adding rows until all data is shown
             }
-
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(null, "Error returning organisms:\n");
         }
         return model;
     }
 
+    /**
+     * Counts the organisms in the database.
+     *
+     * @return the number of rows in the Organisms table.
+     * @throws SQLException if the query fails.
+     */
+    public int countOrganisms() throws SQLException {
+        try (PooledConnection conn = connect();
+             ResultSet rs = conn.prepare(COUNT_SQL).executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Counts the organisms whose ID sorts before the given one, which is that ID's row in organism_id order.
+     *
+     * @param id the organism ID.
+     * @return the number of organisms with a smaller ID.
+     * @throws SQLException if the query fails.
+     */
+    public int countOrganismsBefore(String id) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(COUNT_BEFORE_SQL);
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Gets one page of organisms ordered by ID, starting after the given ID.
+     * This uses the organism_id ordering instead of OFFSET, so every page costs the same no matter how deep it is.
+     *
+     * @param afterId the last ID of the previous page, or null for the first page.
+     * @param limit the maximum number of organisms to return.
+     * @return the organisms on the page.
+     * @throws SQLException if the query fails.
+     */
+    public List<Organism> getOrganismPage(String afterId, int limit) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps;
+            if (afterId == null) {
+                ps = conn.prepare(FIRST_PAGE_SQL);
+                ps.setInt(1, limit);
+            } else {
+                ps = conn.prepare(PAGE_AFTER_SQL);
+                ps.setString(1, afterId);
+                ps.setInt(2, limit);
+            }
+            return readOrganisms(ps);
+        }
+    }
+
+    /**
+     * Gets one page of organisms ordered by ID, starting at a row offset.
+     * Used when jumping to a page whose previous page hasn't been read yet.
+     *
+     * @param offset number of rows to skip.
+     * @param limit the maximum number of organisms to return.
+     * @return the organisms on the page.
+     * @throws SQLException if the query fails.
+     */
+    public List<Organism> getOrganismPageAt(int offset, int limit) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(PAGE_AT_SQL);
+            ps.setInt(1, limit);
+            ps.setInt(2, offset);
+            return readOrganisms(ps);
+        }
+    }
+
+    /**
+     * Runs a query in SQLite. The filter, sort keys, limit and offset all become part of one parameterized SELECT,
+     * so only the organisms on the page are read.
+     *
+     * @param query the query.
+     * @return the matching organisms in the query's order.
+     * @throws SQLException if the query fails.
+     */
+    public List<Organism> query(OrganismQuery query) throws SQLException {
+        //the SQL changes with the query, so it isn't kept in the statement cache
+        try (PooledConnection conn = connect();
+             PreparedStatement ps = conn.getConnection().prepareStatement(query.toSql())) {
+            query.bind(ps);
+            return readOrganisms(ps);
+        }
+    }
+
+    /**
+     * Searches the clade, genus and species, and features of every organism with the organisms_fts index.
+     *
+     * @param text words that must all be found, a word ending in * matches as a prefix, like "extinct prehist*".
+     * @param limit the most organisms to return.
+     * @return the matching organisms, best match first; empty if the text has no words.
+     * @throws SQLException if the search fails.
+     */
+    public List<Organism> search(String text, int limit) throws SQLException {
+        //rebuilt from the parsed words, so quotes or FTS5 operators typed by the user can't break the query
+        StringBuilder match = new StringBuilder();
+        for (OrganismTextIndex.QueryTerm term : OrganismTextIndex.parseQuery(text)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(term.text).append('"');
+            if (term.prefix) {
+                match.append('*');
+            }
+        }
+        if (match.length() == 0) {
+            return new ArrayList<>();
+        }
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(SEARCH_SQL);
+            ps.setString(1, match.toString());
+            ps.setInt(2, limit);
+            return readOrganisms(ps);
+        }
+    }
+
+    /**
+     * Reads one organism by its ID.
+     *
+     * @param id the organism ID.
+     * @return the organism, or null if there is none with that ID.
+     * @throws SQLException if the query fails.
+     */
+    public Organism getOrganism(String id) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(SELECT_BY_ID_SQL);
+            ps.setString(1, id);
+            return readSingleOrganism(ps);
+        }
+    }
+
+    /**
+     * Checks if an organism with the ID exists, using the primary key index.
+     *
+     * @param id the organism ID.
+     * @return true if there is an organism with that ID.
+     * @throws SQLException if the query fails.
+     */
+    public boolean organismExists(String id) throws SQLException {
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(EXISTS_SQL);
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Reads every organism ID without reading the rest of the rows.
+     *
+     * @param action called once per ID, in no particular order.
+     * @throws SQLException if the query fails.
+     */
+    public void forEachOrganismId(Consumer<String> action) throws SQLException {
+        try (PooledConnection conn = connect();
+             ResultSet rs = conn.prepare(SELECT_IDS_SQL).executeQuery()) {
+            while (rs.next()) {
+                action.accept(rs.getString(1));
+            }
+        }
+    }
+
+    /**
+     * Writes every organism to an exporter, in the order they were added. The rows are read through one cursor
+     * and written as they are read, so the whole table is never in memory. Rowid order reads the table straight
+     * through, ordering by ID would look up every row through the ID index.
+     *
+     * @param exporter where the organisms go, left open.
+     * @return the number of organisms written.
+     * @throws SQLException if the query fails.
+     * @throws IOException if an organism can't be written.
+     */
+    public long exportOrganisms(OrganismExporter exporter) throws SQLException, IOException {
+        long written = 0;
+        try (PooledConnection conn = connect()) {
+            PreparedStatement ps = conn.prepare(EXPORT_SQL);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    exporter.write(readOrganism(rs));
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Runs a query and turns every row into an Organism.
+     *
+     * @param ps the prepared query.
+     * @return the organisms read.
+     * @throws SQLException if the query fails.
+     */
+    private List<Organism> readOrganisms(PreparedStatement ps) throws SQLException {
+        List<Organism> organisms = new ArrayList<>();
+        try (ResultSet rset = ps.executeQuery()) {
+            while (rset.next()) {
+                organisms.add(readOrganism(rset));
+            }
+        }
+        return organisms;
+    }
+
+    /**
+     * Runs a statement that returns at most one organism, like a DELETE or UPDATE with RETURNING.
+     *
+     * @param ps the prepared statement.
+     * @return the organism returned, or null if no row matched.
+     * @throws SQLException if the statement fails.
+     */
+    private Organism readSingleOrganism(PreparedStatement ps) throws SQLException {
+        try (ResultSet rset = ps.executeQuery()) {
+            return rset.next() ? readOrganism(rset) : null;
+        }
+    }
+
+    /**
+     * Reads the current row of a result set into an Organism.
+     *
+     * @param rset a result set positioned on a row of the Organisms table.
+     * @return the organism in that row.
+     * @throws SQLException if a column can't be read.
+     */
+    private Organism readOrganism(ResultSet rset) throws SQLException {
+        return new Organism(
+                rset.getString("organism_id"),
+                CategoryDictionary.canonical(rset.getString("clade")),
+                rset.getString("species"),
+                rset.getInt("lifespan"),
+                CategoryDictionary.canonical(rset.getString("lifespan_unit")),
+                rset.getString("features"),
+                rset.getFloat("average_length"),
+                CategoryDictionary.canonical(rset.getString("length_unit")));
+    }
+
 }
@@ -0,0 +1,59 @@
+package com.organism;
+
+import java.util.Locale;
+
+/**
+ * The file formats organisms can be exported in.
+ */
+public enum ExportFormat {
+    /** Comma separated values with a header row, quoted where needed as in RFC 4180. */
+    CSV(".csv"),
+    /** One JSON object per line, with the same property names as Organism's getters. */
+    JSON_LINES(".jsonl"),
+    /** The upload format read by loadFile: id-clade-genus-lifespan-unit-features-length-unit. */
+    DASH(".txt");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the usual file extension, with the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format from a file name's extension, ignoring a trailing .gz.
+     *
+     * @param fileName the file name.
+     * @return the format, or null if the extension isn't one of .csv, .jsonl, .json or .txt.
+     */
+    public static ExportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+            return JSON_LINES;
+        }
+        if (name.endsWith(".txt")) {
+            return DASH;
+        }
+        return null;
+    }
+
+    /**
+     * @param fileName the file name.
+     * @return true if the name ends in .gz, so the file is gzip compressed.
+     */
+    public static boolean isGzip(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+}
@@ -0,0 +1,78 @@
+package com.organism;
+
+/**
+ * The allowed length units and how many centimeters each one is.
+ *
+ * Organisms still store the unit as a String, but the strings made by the parser and the database come from
+ * getSymbol, so looking one up is usually a reference check instead of a string compare.
+ */
+public enum LengthUnit {
+    MM("mm", 0.1f),
+    CM("cm", 1f),
+    M("m", 100f);
+
+    private final String symbol;
+    private final float centimeters;
+
+    LengthUnit(String symbol, float centimeters) {
+        this.symbol = symbol;
+        this.centimeters = centimeters;
+    }
+
+    /**
+     * @return the unit as it is written in files and the database: mm, cm or m.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Converts a length in this unit to centimeters.
+     *
+     * @param length the length value.
+     * @return the length in centimeters.
+     */
+    public float toCentimeters(float length) {
+        //divide for mm, multiplying by 0.1f would round differently from the old length / 10
+        return this == MM ? length / 10 : length * centimeters;
+    }
+
+    /**
+     * Finds the unit for a symbol, ignoring case, without making any new strings.
+     *
+     * @param symbol the unit symbol.
+     * @return the unit, or null if the symbol isn't mm, cm or m.
+     */
+    public static LengthUnit fromSymbol(String symbol) {
+        //canonical strings match by reference
+        if (symbol == MM.symbol) {
+            return MM;
+        }
+        if (symbol == CM.symbol) {
+            return CM;
+        }
+        if (symbol == M.symbol) {
+            return M;
+        }
+        if (symbol == null) {
+            return null;
+        }
+        if (symbol.length() == 1) {
+            return isLetter(symbol.charAt(0), 'm') ? M : null;
+        }
+        if (symbol.length() == 2 && isLetter(symbol.charAt(1), 'm')) {
+            char first = symbol.charAt(0);
+            if (isLetter(first, 'm')) {
+                return MM;
+            }
+            if (isLetter(first, 'c')) {
+                return CM;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLetter(char c, char lower) {
+        return c == lower || c == Character.toUpperCase(lower);
+    }
+}
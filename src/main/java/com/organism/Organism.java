@@ -17,6 +17,8 @@ public class Organism {
     private String definitiveFeatures;
     private float averageLength;
     private String lengthUnit;
+    //averageLength converted to centimeters, kept up to date by the setters so averages don't convert per row
+    private float lengthCentimeters;
 
     /**
      * Constructor for a new Organism with all required attributes.
@@ -40,6 +42,17 @@ public class Organism {
         this.definitiveFeatures = definitiveFeatures;
         this.averageLength = averageLength;
         this.lengthUnit = lengthUnit;
+        updateLengthCentimeters();
+    }
+
+    /**
+     * Copy constructor, makes a new Organism with the same attributes.
+     *
+     * @param other the organism to copy.
+     */
+    public Organism(Organism other) {
+        this(other.id, other.cladeName, other.genusSpecies, other.lifespanEstimate, other.lifespanUnit,
+                other.definitiveFeatures, other.averageLength, other.lengthUnit);
     }
 
     // Default constructor
@@ -109,6 +122,7 @@ public class Organism {
 
     public void setAverageLength(float averageLength) {
         this.averageLength = averageLength;
+        updateLengthCentimeters();
     }
 
     public String getLengthUnit() {
@@ -117,6 +131,21 @@ public class Organism {
 
     public void setLengthUnit(String lengthUnit) {
         this.lengthUnit = lengthUnit;
+        updateLengthCentimeters();
+    }
+
+    /**
+     * Returns the average length converted to centimeters. Unknown units are treated as centimeters.
+     *
+     * @return the average length in cm.
+     */
+    public float getLengthCentimeters() {
+        return lengthCentimeters;
+    }
+
+    private void updateLengthCentimeters() {
+        LengthUnit unit = LengthUnit.fromSymbol(lengthUnit);
+        lengthCentimeters = unit == null ? averageLength : unit.toCentimeters(averageLength);
     }
 
     /**
@@ -1,4 +1,6 @@
 package com.organism;
+import java.io.File;
+import java.io.IOException;
 import java.util.Scanner;
 
 //Logger imports
@@ -26,17 +28,35 @@ public class OrganismApplication {
     private static final Logger logger = LogManager.getLogger(OrganismApplication.class);
     private static Scanner scanner = new Scanner(System.in);
     private static OrganismManager manage = new OrganismManager();
+    /** Files bigger than this (in bytes) are loaded with the parallel loader. */
+    private static final long PARALLEL_LOAD_BYTES = 64L * 1024 * 1024;
+    /** Directory of the snapshot and journal when none is given on the command line. */
+    private static final String DEFAULT_JOURNAL_DIRECTORY = ".";
+    private static final String USAGE = "Usage: java -jar organism.jar [journal directory]\n"
+            + "  journal directory  where the organisms are saved between sessions, default: the current directory";
+    /** Directory of the snapshot and journal the organisms are kept in between sessions. */
+    private static String journalDirectory = DEFAULT_JOURNAL_DIRECTORY;
     /**
      * Program starting point. Has a looping switch-case menu that allows the user to perform
      * CRUD operations and run custom a custom method through the CLI prompts.
      *
+     * @param args optionally the journal directory, see USAGE.
      */
     public static void main(String[] args) {
+        if (args.length > 1 || (args.length == 1 && (args[0].equals("-h") || args[0].equals("--help")))) {
+            System.out.println(USAGE);
+            return;
+        }
+        if (args.length == 1) {
+            journalDirectory = args[0];
+        }
+
         //adding logs to my code
         String sessionId = UUID.randomUUID().toString();
         ThreadContext.put("sessionId", sessionId);
         logger.info("Application started. Session ID: {}", sessionId);
-        
+        openJournal();
+
 
         boolean runProgram = true;
         while (runProgram) {
@@ -76,6 +96,7 @@ public class OrganismApplication {
                 case "7":
                 {
                     logger.info("User exited the application");
+                    closeJournal();
                     runProgram = false;
                     System.out.println("Exiting Organism Management System. Goodbye!");
                 }
@@ -104,6 +125,34 @@ public class OrganismApplication {
         System.out.println("-----------------------------------------------------------");
     }
 
+    /**
+     * Recovers the organisms of the last session, even one that crashed, and logs every change from now on.
+     */
+    private static void openJournal() {
+        try {
+            int loaded = manage.openJournal(journalDirectory);
+            logger.info("Journal directory: {}", journalDirectory);
+            if (loaded > 0) {
+                System.out.println("Loaded " + loaded + " organisms from the last session.");
+            }
+        } catch (IOException e) {
+            logger.error("Journal open failed: {}", journalDirectory, e);
+            System.out.println("Could not load the last session, changes won't be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compacts the journal into a snapshot so the next session starts quickly.
+     */
+    private static void closeJournal() {
+        try {
+            manage.closeJournal();
+        } catch (IOException e) {
+            logger.error("Journal close failed: {}", journalDirectory, e);
+            System.out.println("Could not compact the saved organisms, they will load from the journal: " + e.getMessage());
+        }
+    }
+
     /**
      * Prompting the user for a file path and trys to load organisms from the
      * specified file using the loadFile method from Organism Manager.
@@ -111,13 +160,17 @@ public class OrganismApplication {
      * The method prints a result message and displays all organisms after loading.
      */
     public static void importOrganisms() {
-        System.out.print("Enter file path (format: ID-CladeName-GenusSpecies-LifespanEstimate-LifespanUnit-DefiniteFeatures-AverageLength-LengthUnit): ");
+        System.out.print("Enter file path (format: ID-CladeName-GenusSpecies-LifespanEstimate-LifespanUnit-DefiniteFeatures-AverageLength-LengthUnit, or a .json/.jsonl file, optionally .gz): ");
         logger.info("Importing organisms from file");
 
         String path = scanner.nextLine().trim();
         logger.info("File path entered: {}", path);
 
-        String report = manage.loadFile(path);
+        //big text exports get split up and parsed on all cores, JSON and gzipped files are read in one pass
+        boolean streamed = ExportFormat.isGzip(path) || ExportFormat.fromFileName(path) == ExportFormat.JSON_LINES;
+        String report = !streamed && new File(path).length() > PARALLEL_LOAD_BYTES
+                ? manage.loadFileParallel(path)
+                : manage.loadFile(path);
 
         logger.info("Load result: {}", report);
         System.out.println(report);
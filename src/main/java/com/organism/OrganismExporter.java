@@ -0,0 +1,231 @@
+package com.organism;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Writes organisms to a file one at a time, in CSV, JSON Lines or the dash upload format, optionally gzipped.
+ *
+ * Nothing is kept per organism, so the memory used is the same for ten rows or ten million: output goes through
+ * a 64 KB buffer (and a gzip stream if asked for) and JSON Lines are written by Jackson's streaming JsonGenerator.
+ * Gzip uses the fastest compression level; the default level takes several times longer for files only a little
+ * smaller.
+ * Feed it from OrganismManager.export, DatabaseHelper.exportOrganisms, or any loop over organisms.
+ */
+public class OrganismExporter implements AutoCloseable {
+    /** Size of the output buffer, in chars, and of the gzip buffer, in bytes. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,clade,species,lifespan,lifespan_unit,features,average_length,length_unit";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long count;
+
+    /**
+     * Creates or replaces a file and gets it ready for organisms.
+     *
+     * @param file the file to write.
+     * @param format the format to write in.
+     * @param gzip true to gzip the output.
+     * @throws IOException if the file can't be created.
+     */
+    public OrganismExporter(Path file, ExportFormat format, boolean gzip) throws IOException {
+        this(Files.newOutputStream(file), format, gzip);
+    }
+
+    /**
+     * Writes organisms to a stream, which is closed with the exporter.
+     *
+     * @param out where the organisms go.
+     * @param format the format to write in.
+     * @param gzip true to gzip the output.
+     * @throws IOException if the header can't be written.
+     */
+    public OrganismExporter(OutputStream out, ExportFormat format, boolean gzip) throws IOException {
+        this.format = format;
+        OutputStream target = gzip ? new FastGzipOutputStream(out) : out;
+        this.writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.JSON_LINES) {
+            json = JSON_FACTORY.createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            //a line break between objects instead of Jackson's default space
+            json.setRootValueSeparator(new SerializedString("\n"));
+        } else {
+            json = null;
+        }
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes one organism.
+     *
+     * @param organism the organism.
+     * @throws IOException if it can't be written.
+     */
+    public void write(Organism organism) throws IOException {
+        switch (format) {
+            case CSV:
+                writeCsv(organism);
+                break;
+            case JSON_LINES:
+                writeJson(organism);
+                break;
+            default:
+                writeDash(organism);
+                break;
+        }
+        count++;
+    }
+
+    /**
+     * Writes every organism in order.
+     *
+     * @param organisms the organisms.
+     * @throws IOException if one can't be written.
+     */
+    public void writeAll(Iterable<Organism> organisms) throws IOException {
+        for (Organism organism : organisms) {
+            write(organism);
+        }
+    }
+
+    /**
+     * @return the number of organisms written.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Finishes the file, including the gzip trailer, and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+            if (count > 0) {
+                writer.write('\n');
+            }
+        }
+        writer.close();
+    }
+
+    /**
+     * GZIPOutputStream at Deflater.BEST_SPEED, it has no constructor for the level.
+     */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    private void writeCsv(Organism organism) throws IOException {
+        writeCsvField(organism.getId());
+        writer.write(',');
+        writeCsvField(organism.getCladeName());
+        writer.write(',');
+        writeCsvField(organism.getGenusSpecies());
+        writer.write(',');
+        writer.write(Integer.toString(organism.getLifespanEstimate()));
+        writer.write(',');
+        writeCsvField(organism.getLifespanUnit());
+        writer.write(',');
+        writeCsvField(organism.getDefinitiveFeatures());
+        writer.write(',');
+        writer.write(Float.toString(organism.getAverageLength()));
+        writer.write(',');
+        writeCsvField(organism.getLengthUnit());
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a text field, in double quotes with quotes doubled if it has a comma, quote or line break.
+     * null is written as an empty field.
+     */
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        int quoteAt;
+        while ((quoteAt = value.indexOf('"', start)) >= 0) {
+            writer.write(value, start, quoteAt + 1 - start);
+            writer.write('"');
+            start = quoteAt + 1;
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    private void writeJson(Organism organism) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", organism.getId());
+        json.writeStringField("cladeName", organism.getCladeName());
+        json.writeStringField("genusSpecies", organism.getGenusSpecies());
+        json.writeNumberField("lifespanEstimate", organism.getLifespanEstimate());
+        json.writeStringField("lifespanUnit", organism.getLifespanUnit());
+        json.writeStringField("definitiveFeatures", organism.getDefinitiveFeatures());
+        json.writeNumberField("averageLength", organism.getAverageLength());
+        json.writeStringField("lengthUnit", organism.getLengthUnit());
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes the upload format. Text that has a dash in it can't be read back by loadFile, use CSV or
+     * JSON Lines for those organisms. null is written as an empty field.
+     */
+    private void writeDash(Organism organism) throws IOException {
+        writer.write(organism.getId());
+        writer.write('-');
+        writeDashField(organism.getCladeName());
+        writer.write('-');
+        writeDashField(organism.getGenusSpecies());
+        writer.write('-');
+        writer.write(Integer.toString(organism.getLifespanEstimate()));
+        writer.write('-');
+        writeDashField(organism.getLifespanUnit());
+        writer.write('-');
+        writeDashField(organism.getDefinitiveFeatures());
+        writer.write('-');
+        //Float.toString uses an exponent below 0.001, and the dash in 3.0E-4 would split the field
+        writer.write(new BigDecimal(Float.toString(organism.getAverageLength())).toPlainString());
+        writer.write('-');
+        writeDashField(organism.getLengthUnit());
+        writer.write('\n');
+    }
+
+    private void writeDashField(String value) throws IOException {
+        if (value != null) {
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.organism;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismExporterTest {
+
+    private static OrganismManager sampleManager() {
+        OrganismManager manager = new OrganismManager();
+        manager.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", "extinct, \"giant\"", 50.5F, "m"));
+        manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years", null, 1300F, "mm"));
+        return manager;
+    }
+
+    @org.junit.jupiter.api.Test
+    void writesEachFormat() throws IOException {
+        Path file = Files.createTempFile("organisms", ".export");
+        try {
+            OrganismManager manager = sampleManager();
+
+            assertEquals(2, manager.export(file.toString(), ExportFormat.CSV, false));
+            assertEquals("id,clade,species,lifespan,lifespan_unit,features,average_length,length_unit\n"
+                    + "00021,Lycophyta,Lepidodendron,15,years,\"extinct, \"\"giant\"\"\",50.5,m\n"
+                    + "00100,Mammalia,Canis lupus,12,years,,1300.0,mm\n", Files.readString(file));
+
+            manager.export(file.toString(), ExportFormat.JSON_LINES, false);
+            String[] lines = Files.readString(file).split("\n");
+            assertEquals(2, lines.length);
+            assertEquals("{\"id\":\"00100\",\"cladeName\":\"Mammalia\",\"genusSpecies\":\"Canis lupus\",\"lifespanEstimate\":12,"
+                    + "\"lifespanUnit\":\"years\",\"definitiveFeatures\":null,\"averageLength\":1300.0,\"lengthUnit\":\"mm\"}", lines[1]);
+
+            //the dash format loads back in
+            manager.removeOrganism("00021");
+            manager.export(file.toString(), ExportFormat.DASH, true);
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                assertEquals("00100-Mammalia-Canis lupus-12-years--1300.0-mm\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void dashExportLoadsBack() throws IOException {
+        Path file = Files.createTempFile("organisms", ".txt");
+        try {
+            OrganismManager manager = new OrganismManager();
+            manager.addOrganism(new Organism("00001", "Bacteria", "Mycoplasma genitalium", 1, "days", "tiny", 0.0003F, "mm"));
+            manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years", null, 1300F, "mm"));
+            manager.export(file.toString(), ExportFormat.DASH, false);
+            assertTrue(Files.readString(file).contains("-0.00030-mm\n"));
+
+            OrganismManager loaded = new OrganismManager();
+            assertEquals("File uploaded correctly. 2 organisms were successfully added.", loaded.loadFile(file.toString()));
+            assertEquals(0.0003F, loaded.getOrganism("00001").getAverageLength());
+            assertEquals("", loaded.getOrganism("00100").getDefinitiveFeatures());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void csvExportIsRefusedOnImport() throws IOException {
+        Path file = Files.createTempFile("organisms", ".csv.gz");
+        try {
+            sampleManager().export(file.toString(), ExportFormat.CSV, true);
+            OrganismManager loaded = new OrganismManager();
+            assertTrue(loaded.loadFile(file.toString()).contains("CSV can't be imported"));
+            assertTrue(loaded.loadFileParallel(file.toString()).contains("CSV can't be imported"));
+            assertEquals(0, loaded.getOrganisms().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void exportsFromDatabase() throws IOException, SQLException {
+        Path dbFile = Files.createTempFile("organisms", ".db");
+        Path file = Files.createTempFile("organisms", ".csv");
+        try (DatabaseHelper dbHelper = new DatabaseHelper(dbFile.toString())) {
+            dbHelper.importOrganisms(sampleManager().getOrganisms().iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, false);
+            try (OrganismExporter exporter = new OrganismExporter(file, ExportFormat.CSV, false)) {
+                assertEquals(2, dbHelper.exportOrganisms(exporter));
+            }
+            assertEquals(3, Files.readAllLines(file).size());
+            assertTrue(Files.readString(file).contains("00100,Mammalia,Canis lupus,12,years,,1300.0,mm"));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dbFile);
+        }
+    }
+}
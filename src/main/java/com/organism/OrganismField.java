@@ -0,0 +1,143 @@
+package com.organism;
+
+/**
+ * The organism attributes that can be updated, with their database column and the rules for new values.
+ *
+ * Used by batch updates so each value is checked and converted once, and the SQL for a set of fields can be
+ * built from the columns instead of a string switch per call.
+ */
+public enum OrganismField {
+    CLADE("clade"),
+    GENUS("species"),
+    LIFESPAN("lifespan"),
+    LIFESPAN_UNIT("lifespan_unit"),
+    FEATURES("features"),
+    AVERAGE_LENGTH("average_length"),
+    LENGTH_UNIT("length_unit");
+
+    private final String column;
+
+    OrganismField(String column) {
+        this.column = column;
+    }
+
+    /**
+     * @return the column in the Organisms table.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Finds a field by the attribute names the CLI and GUI use, ignoring case.
+     *
+     * @param name an attribute name like "clade", "lifespan unit" or "lengthunit".
+     * @return the field, or null if the name isn't one.
+     */
+    public static OrganismField fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.trim().toLowerCase()) {
+            case "clade":
+                return CLADE;
+            case "genus":
+            case "species":
+                return GENUS;
+            case "lifespan":
+                return LIFESPAN;
+            case "lifespan unit":
+            case "lifespan_unit":
+                return LIFESPAN_UNIT;
+            case "features":
+                return FEATURES;
+            case "average length":
+            case "average":
+            case "average_length":
+                return AVERAGE_LENGTH;
+            case "lengthunit":
+            case "length unit":
+            case "length_unit":
+                return LENGTH_UNIT;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Checks a new value and converts it to the type stored for this field.
+     *
+     * @param value the new value as text.
+     * @return an Integer for LIFESPAN, a Float for AVERAGE_LENGTH, otherwise the String.
+     * @throws IllegalArgumentException with a message for the user if the value isn't allowed.
+     */
+    public Object parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("A value is needed for " + name().toLowerCase() + ".");
+        }
+        switch (this) {
+            case LIFESPAN:
+                try {
+                    int lifespan = Integer.parseInt(value.trim());
+                    if (lifespan > 0) {
+                        return lifespan;
+                    }
+                } catch (NumberFormatException e) {
+                    //falls through to the message below
+                }
+                throw new IllegalArgumentException("Lifespan must be a positive integer.");
+            case AVERAGE_LENGTH:
+                try {
+                    float length = Float.parseFloat(value.trim());
+                    if (length > 0) {
+                        return length;
+                    }
+                } catch (NumberFormatException e) {
+                    //falls through to the message below
+                }
+                throw new IllegalArgumentException("Average length must be a positive number.");
+            case LENGTH_UNIT:
+                if (!OrganismValidator.isValidLengthUnit(value)) {
+                    throw new IllegalArgumentException("Length unit must be mm, cm, or m.");
+                }
+                return CategoryDictionary.canonical(value);
+            case CLADE:
+            case LIFESPAN_UNIT:
+                return CategoryDictionary.canonical(value);
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Sets this field on an organism.
+     *
+     * @param organism the organism to change.
+     * @param value a value returned by parse.
+     */
+    public void apply(Organism organism, Object value) {
+        switch (this) {
+            case CLADE:
+                organism.setCladeName((String) value);
+                break;
+            case GENUS:
+                organism.setGenusSpecies((String) value);
+                break;
+            case LIFESPAN:
+                organism.setLifespanEstimate((Integer) value);
+                break;
+            case LIFESPAN_UNIT:
+                organism.setLifespanUnit((String) value);
+                break;
+            case FEATURES:
+                organism.setDefinitiveFeatures((String) value);
+                break;
+            case AVERAGE_LENGTH:
+                organism.setAverageLength((Float) value);
+                break;
+            case LENGTH_UNIT:
+                organism.setLengthUnit((String) value);
+                break;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.organism;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A condition on organisms that can be checked in memory and also run in SQLite.
+ *
+ * A filter is a list of terms that must all match, each one comparing a QueryField with a value. The same terms
+ * give the Java predicate and the SQL WHERE clause with ? parameters, so the in-memory managers and
+ * DatabaseHelper select the same organisms, and stores that keep their own columns can read the terms to
+ * check them without building organisms. Filters never change after they are made.
+ */
+public final class OrganismFilter implements Predicate<Organism> {
+
+    /**
+     * How a term compares the field with its value.
+     */
+    enum Op {
+        EQUALS("="),
+        LESS_THAN("<"),
+        AT_MOST("<="),
+        GREATER_THAN(">"),
+        AT_LEAST(">="),
+        CONTAINS(null);
+
+        final String sql;
+
+        Op(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * One comparison of a field with a value. value is a Double for number fields and a String for text fields,
+     * with A to Z lower cased for CONTAINS.
+     */
+    static final class Term {
+        final QueryField field;
+        final Op op;
+        final Object value;
+
+        Term(QueryField field, Op op, Object value) {
+            this.field = field;
+            this.op = op;
+            this.value = value;
+        }
+
+        boolean test(Organism organism) {
+            if (field.isNumeric()) {
+                return matches(Double.compare(field.number(organism), (Double) value));
+            }
+            String text = field.text(organism);
+            if (text == null) {
+                return false;
+            }
+            if (op == Op.CONTAINS) {
+                return asciiLowerCase(text).contains((String) value);
+            }
+            return matches(text.compareTo((String) value));
+        }
+
+        /**
+         * @param comparison the field compared with the value, as compareTo gives it.
+         * @return true if the comparison meets this term's op.
+         */
+        boolean matches(int comparison) {
+            switch (op) {
+                case EQUALS:
+                    return comparison == 0;
+                case LESS_THAN:
+                    return comparison < 0;
+                case AT_MOST:
+                    return comparison <= 0;
+                case GREATER_THAN:
+                    return comparison > 0;
+                case AT_LEAST:
+                    return comparison >= 0;
+                default:
+                    return false;
+            }
+        }
+
+        void appendSql(StringBuilder sql) {
+            if (op == Op.CONTAINS) {
+                //instr instead of LIKE, so % and _ in the text need no escaping
+                sql.append("instr(lower(").append(field.getColumn()).append("), ?) > 0");
+            } else {
+                sql.append(field.getColumn()).append(' ').append(op.sql).append(" ?");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return field + " " + (op.sql == null ? op.name() : op.sql) + " " + value;
+        }
+    }
+
+    private final List<Term> terms;
+
+    private OrganismFilter(List<Term> terms) {
+        this.terms = terms;
+    }
+
+    private static OrganismFilter of(QueryField field, Op op, Object value) {
+        Objects.requireNonNull(value, "value");
+        Object checked;
+        if (field.isNumeric()) {
+            if (!(value instanceof Number) || op == Op.CONTAINS) {
+                throw new IllegalArgumentException(field + " is a number field: " + value);
+            }
+            checked = ((Number) value).doubleValue();
+        } else {
+            if (!(value instanceof String)) {
+                throw new IllegalArgumentException(field + " is a text field: " + value);
+            }
+            if (op == Op.CONTAINS) {
+                checked = asciiLowerCase((String) value);
+            } else {
+                checked = field.isCategory() ? CategoryDictionary.canonical((String) value) : value;
+            }
+        }
+        return new OrganismFilter(List.of(new Term(field, op, checked)));
+    }
+
+    /**
+     * Matches organisms whose field equals a value.
+     *
+     * @param field the field to check.
+     * @param value a Number for number fields, a String for text fields.
+     * @return the filter.
+     */
+    public static OrganismFilter equalTo(QueryField field, Object value) {
+        return of(field, Op.EQUALS, value);
+    }
+
+    /**
+     * Matches organisms whose field is below a value. Text is compared in alphabetical (character) order.
+     *
+     * @param field the field to check.
+     * @param value a Number for number fields, a String for text fields.
+     * @return the filter.
+     */
+    public static OrganismFilter lessThan(QueryField field, Object value) {
+        return of(field, Op.LESS_THAN, value);
+    }
+
+    /**
+     * Matches organisms whose field is below or equal to a value.
+     */
+    public static OrganismFilter atMost(QueryField field, Object value) {
+        return of(field, Op.AT_MOST, value);
+    }
+
+    /**
+     * Matches organisms whose field is above a value.
+     */
+    public static OrganismFilter greaterThan(QueryField field, Object value) {
+        return of(field, Op.GREATER_THAN, value);
+    }
+
+    /**
+     * Matches organisms whose field is above or equal to a value.
+     */
+    public static OrganismFilter atLeast(QueryField field, Object value) {
+        return of(field, Op.AT_LEAST, value);
+    }
+
+    /**
+     * Matches organisms whose field is from min to max, both included.
+     *
+     * @param field the field to check.
+     * @param min the lowest value that matches.
+     * @param max the highest value that matches.
+     * @return the filter.
+     */
+    public static OrganismFilter between(QueryField field, Object min, Object max) {
+        return atLeast(field, min).and(atMost(field, max));
+    }
+
+    /**
+     * Matches organisms whose text field contains some text, ignoring the case of A to Z. Other letters, like É,
+     * must match exactly, because SQLite's lower() only folds ASCII and the database has to select the same
+     * organisms.
+     *
+     * @param field a text field.
+     * @param text the text to look for.
+     * @return the filter.
+     */
+    public static OrganismFilter contains(QueryField field, String text) {
+        return of(field, Op.CONTAINS, text);
+    }
+
+    /**
+     * Matches organisms in one clade.
+     *
+     * @param clade the clade name, compared exactly.
+     * @return the filter.
+     */
+    public static OrganismFilter cladeEquals(String clade) {
+        return equalTo(QueryField.CLADE, clade);
+    }
+
+    /**
+     * Matches organisms shorter than a length.
+     *
+     * @param centimeters the length in centimeters, organisms of exactly this length don't match.
+     * @return the filter.
+     */
+    public static OrganismFilter shorterThan(float centimeters) {
+        return lessThan(QueryField.LENGTH_CM, centimeters);
+    }
+
+    /**
+     * Matches organisms that match both this filter and another.
+     *
+     * @param other the other filter.
+     * @return the combined filter.
+     */
+    public OrganismFilter and(OrganismFilter other) {
+        List<Term> combined = new ArrayList<>(terms);
+        combined.addAll(other.terms);
+        return new OrganismFilter(Collections.unmodifiableList(combined));
+    }
+
+    @Override
+    public boolean test(Organism organism) {
+        for (Term term : terms) {
+            if (!term.test(organism)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the terms, all of which must match.
+     */
+    List<Term> getTerms() {
+        return terms;
+    }
+
+    /**
+     * @return the value this filter needs the field to equal, or null if it has no such term.
+     */
+    Object equalityValue(QueryField field) {
+        for (Term term : terms) {
+            if (term.field == field && term.op == Op.EQUALS) {
+                return term.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the WHERE clause for the Organisms table, without the WHERE keyword.
+     */
+    public String getSql() {
+        StringBuilder sql = new StringBuilder();
+        for (Term term : terms) {
+            if (sql.length() > 0) {
+                sql.append(" AND ");
+            }
+            term.appendSql(sql);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * @return the values for the ? parameters of getSql, in order.
+     */
+    public List<Object> getParameters() {
+        List<Object> parameters = new ArrayList<>(terms.size());
+        for (Term term : terms) {
+            parameters.add(term.value);
+        }
+        return parameters;
+    }
+
+    /**
+     * Sets the parameters of getSql on a statement.
+     *
+     * @param ps the statement the clause is part of.
+     * @param first the index of the clause's first ? in the statement.
+     * @return the index after the clause's last ?.
+     * @throws SQLException if a parameter can't be set.
+     */
+    int bind(PreparedStatement ps, int first) throws SQLException {
+        int index = first;
+        for (Term term : terms) {
+            if (term.value instanceof Double) {
+                ps.setDouble(index++, (Double) term.value);
+            } else {
+                ps.setString(index++, (String) term.value);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return terms.toString();
+    }
+
+    /**
+     * Lower cases A to Z and leaves every other character alone, the same as SQLite's lower().
+     *
+     * @param text the text.
+     * @return the text with ASCII letters in lower case.
+     */
+    static String asciiLowerCase(String text) {
+        char[] chars = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+}
@@ -4,8 +4,10 @@ package com.organism;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
+import java.sql.SQLException;
 
 /**
  * GUI class for the Organism Application
@@ -26,13 +28,16 @@ public class OrganismGUI extends JFrame {
     private JButton fileUploadButton;
     private JButton updateOrganismButton;
     private DatabaseHelper dbHelper;
+    private OrganismTableModel tableModel;
+    /** How often, in lines, the file import reports progress and checks for cancel. */
+    private static final int PROGRESS_EVERY_ROWS = 1000;
     private JScrollPane scrollPane;
 
 
     /**
-     * Creates new Organism Manager
+     * Cached organism reads and ID checks in front of dbHelper, all adds, updates and deletes go through it
      */
-    OrganismManager manager = new OrganismManager();
+    private OrganismRepository repository;
     /**
      * Constructor for the Organism GUI window, adds all the interface components,
      * has the user select a database file to start, and loads all organisms from it.
@@ -64,8 +69,12 @@ public class OrganismGUI extends JFrame {
             dbHelper = new DatabaseHelper(dbPath);
             if (dbHelper.testConnection()) {
                 JOptionPane.showMessageDialog(null, "Database connected successfully!");
-                // Load the table from the db data
-                JTOrganismTable.setModel(dbHelper.getAllOrganisms());
+                // Load the table from the db data, rows are read a page at a time as they are shown
+                tableModel = new OrganismTableModel(dbHelper);
+                JTOrganismTable.setModel(tableModel);
+                //read the IDs now so the duplicate checks in the add form are answered from memory
+                repository = new OrganismRepository(dbHelper);
+                loadIdsInBackground();
             }
             //message if database could not be connected to
             else {
@@ -82,74 +91,50 @@ public class OrganismGUI extends JFrame {
         }
         setVisible(true);
 
+        //close the pooled database connections when the window is closed
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                dbHelper.close();
+            }
+        });
+
 
         /**
-         * Handles uploading organism data from a .txt file, each valid line is checked and added into the database,
+         * Handles uploading organism data from a .txt or JSON file, each valid record is checked and added into the database,
          * and the table is refreshed after the upload is done.
          */
         fileUploadButton.addActionListener(e -> {
 
             JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setDialogTitle("Select Organism Data File (.txt)");
-            fileChooser.setFileFilter(new FileNameExtensionFilter("Text files", "txt")); // this keeps files strictly .txt
+            fileChooser.setDialogTitle("Select Organism Data File (.txt, .json, .jsonl)");
+            fileChooser.setFileFilter(new FileNameExtensionFilter("Organism files", "txt", "json", "jsonl", "gz")); // this keeps files strictly .txt or JSON, or those gzipped
 
             int userSelection = fileChooser.showOpenDialog(this);
             if (userSelection != JFileChooser.APPROVE_OPTION) return;
 
             File file = fileChooser.getSelectedFile();
 
-            //added to show how many organisms were added
-            int addedCount = 0;
-
-            try (java.util.Scanner scanner = new java.util.Scanner(file)) {
-                while (scanner.hasNextLine()) {
-                    String line = scanner.nextLine().trim();
-                    if (line.isEmpty()) continue;
-
-                    String[] parts = line.split("-"); // splitting at the - delimiter
-                    if (parts.length != 8) {
-                        continue;
-                    }
-                    // takes in each part, checks for positive numbers and the length unit being acceptable
-                    String id = parts[0];
-                    String clade = parts[1];
-                    String genus = parts[2];
-                    int lifespan;
-                    try {
-                        lifespan = Integer.parseInt(parts[3]);
-                        if (lifespan <= 0) throw new NumberFormatException();
-                    } catch (NumberFormatException ex) {
-                        continue;
-                    }
-                    String lifespanUnit = parts[4];
-                    String features = parts[5];
-
-                    float avgLength;
-                    try {
-                        avgLength = Float.parseFloat(parts[6]);
-                        if (avgLength <= 0) throw new NumberFormatException();
-                    } catch (NumberFormatException ex) {
-                        continue;
-                    }
-
-                    String lengthUnit = parts[7];
-                    if (!lengthUnit.equals("mm") && !lengthUnit.equals("cm") && !lengthUnit.equals("m")) {
-                        continue;
-                    }
-                    // Add to the database via dbHelper
-                    dbHelper.addOrganism(id, clade, genus, lifespan, lifespanUnit, features, avgLength, lengthUnit);
-                    addedCount++;
-                }
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Error reading file:\n" + ex.getMessage());
-            }
-
-            JOptionPane.showMessageDialog(this, "File upload finished.\nAdded: " + addedCount);
-            JTOrganismTable.setModel(dbHelper.getAllOrganisms()); //updates the GUI table
+            //the import runs in the background with a progress dialog, so the window stays responsive
+            BackgroundTask.runWithProgress(this, "Importing organisms",
+                    task -> importFile(file, task),
+                    importResult -> {
+                        String heading = importResult.isCancelled() ? "File upload cancelled." : "File upload finished.";
+                        JOptionPane.showMessageDialog(this, heading + "\n" + importResult);
+                        repository.invalidate(); //the import wrote to the database directly
+                        loadIdsInBackground();
+                        tableModel.refresh(); //updates the GUI table
+                    },
+                    ex -> {
+                        JOptionPane.showMessageDialog(this, "Error reading file:\n" + ex.getMessage());
+                        repository.invalidate();
+                        loadIdsInBackground();
+                        tableModel.refresh();
+                    });
         });
 
         /**
-         * Delete button for the organism that is selected, asks for confirmation, then refreshes the table after.
+         * Delete button for the organism that is selected, asks for confirmation, then removes its row from the table.
          */
         deleteOrganismButton.addActionListener(e -> {
             String id = getSelectedOrganismRow();
@@ -163,14 +148,17 @@ public class OrganismGUI extends JFrame {
                     "Delete Confirmation", JOptionPane.YES_NO_OPTION); //option to select yes or no on deletion
             if (confirmDeletion != JOptionPane.YES_OPTION) return;
 
-            boolean deleted = dbHelper.deleteOrganism(id);
-            //after entering organism id, if-statement checks if id has a value
-            if (deleted) {
-                JOptionPane.showMessageDialog(null, "Organism: " + id + " deleted");
-                JTOrganismTable.setModel(dbHelper.getAllOrganisms()); //updates table after deleting
-            } else {
-                JOptionPane.showMessageDialog(null, "Not an existing organism.");
-            }
+            BackgroundTask.run(task -> repository.deleteOrganism(id),
+                    deleted -> {
+                        //after entering organism id, if-statement checks if id has a value
+                        if (deleted != null) {
+                            JOptionPane.showMessageDialog(null, "Organism: " + id + " deleted");
+                            tableModel.organismDeleted(deleted); //removes just that row from the table
+                        } else {
+                            JOptionPane.showMessageDialog(null, "Not an existing organism.");
+                        }
+                    },
+                    this::showDatabaseError);
         });
 
 
@@ -189,7 +177,15 @@ public class OrganismGUI extends JFrame {
                     JOptionPane.showMessageDialog(null, "ID must be exactly 5 digits.");
                     continue;
                 }
-                if (manager.idDuplicate(id)) {
+                //answered from the repository's in-memory ID set, or one indexed row while that is loading
+                boolean duplicate;
+                try {
+                    duplicate = repository.idDuplicate(id);
+                } catch (SQLException ex) {
+                    showDatabaseError(ex);
+                    return;
+                }
+                if (duplicate) {
                     JOptionPane.showMessageDialog(null, "ID already exists. Enter a unique ID.");
                     continue;
                 }
@@ -246,16 +242,26 @@ public class OrganismGUI extends JFrame {
                 break;
             }
 
-            boolean addedOrganism = dbHelper.addOrganism(id, clade, genus, lifespan, lifespanUnit, features, avgLength, lengthUnit);
-            //checks if organism was added and sends appropriate message to user
-            JOptionPane.showMessageDialog(null, addedOrganism ? "Organism added." : "Failed to add the organism.");
-            JTOrganismTable.setModel(dbHelper.getAllOrganisms());
+            String finalId = id;
+            int finalLifespan = lifespan;
+            float finalAvgLength = avgLength;
+            String finalLengthUnit = lengthUnit;
+            BackgroundTask.run(task -> repository.addOrganism(new Organism(finalId, clade, genus, finalLifespan,
+                            lifespanUnit, features, finalAvgLength, finalLengthUnit)),
+                    addedOrganism -> {
+                        //checks if organism was added and sends appropriate message to user
+                        JOptionPane.showMessageDialog(null, addedOrganism != null ? "Organism added." : "Failed to add the organism.");
+                        if (addedOrganism != null) {
+                            tableModel.organismInserted(addedOrganism);
+                        }
+                    },
+                    this::showDatabaseError);
         });
 
 
         /**
          * Allow the user to select an attribute and update its value for the selected organism.
-         * Refreshes the table after successful update.
+         * Redraws the organism's row after a successful update.
          */
         updateOrganismButton.addActionListener(e -> {
             String id = getSelectedOrganismRow();
@@ -271,14 +277,16 @@ public class OrganismGUI extends JFrame {
             String newValue = JOptionPane.showInputDialog("Enter new value for " + cBoxChoice + ":");
             if (newValue == null || newValue.isEmpty()) return; //check to see if new value is empty or null
 
-            boolean updated = dbHelper.updateOrganism(id, cBoxChoice, newValue);
-
-            if (updated) {
-                JOptionPane.showMessageDialog(null, "Organism updated successfully.");
-                JTOrganismTable.setModel(dbHelper.getAllOrganisms());
-            } else {
-                JOptionPane.showMessageDialog(null, "Failed to update organism.");
-            }
+            BackgroundTask.run(task -> repository.updateOrganism(id, cBoxChoice, newValue),
+                    updated -> {
+                        if (updated != null) {
+                            JOptionPane.showMessageDialog(null, "Organism updated successfully.");
+                            tableModel.organismUpdated(updated);
+                        } else {
+                            JOptionPane.showMessageDialog(null, "Not an existing organism.");
+                        }
+                    },
+                    this::showDatabaseError);
         });
 
         /**
@@ -286,17 +294,83 @@ public class OrganismGUI extends JFrame {
          * It then shows the formatted results.
          */
         customMethodButton.addActionListener(e -> {
-            String averagesOutput = dbHelper.getAverageLengthByCladeString();
-            //checks to see if database is empty before displaying custom method
-            if (averagesOutput.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No organisms in the database.");
-                return;
-            }
-            JOptionPane.showMessageDialog(this, averagesOutput, "Average Lengths by Clade", JOptionPane.INFORMATION_MESSAGE);
+            BackgroundTask.run(task -> dbHelper.getAverageLengthByCladeString(),
+                    averagesOutput -> {
+                        //checks to see if database is empty before displaying custom method
+                        if (averagesOutput.isEmpty()) {
+                            JOptionPane.showMessageDialog(this, "No organisms in the database.");
+                            return;
+                        }
+                        JOptionPane.showMessageDialog(this, averagesOutput, "Average Lengths by Clade", JOptionPane.INFORMATION_MESSAGE);
+                    },
+                    this::showDatabaseError);
         });
 
     }
 
+    /**
+     * Reads a organism text or JSON file and bulk imports it into the database. Runs on a background thread,
+     * reports the records read to the progress dialog and stops early if the user cancels.
+     *
+     * @param file the text or JSON file to import.
+     * @param task progress reporting for the background task running the import.
+     * @return the number of organisms added and the rejected lines.
+     * @throws Exception if the file can't be read or a batch fails.
+     */
+    private BulkImportResult importFile(File file, TaskProgress task) throws Exception {
+        //each line is validated and sent to the database in batches, bad lines are reported instead of added
+        try (OrganismSource parser = OrganismSource.open(file.toPath());
+             BulkImport bulkImport = dbHelper.openBulkImport(DatabaseHelper.DEFAULT_BATCH_SIZE, true)) {
+            //counted here because a JSON record can span many lines, or a whole file can be one line
+            long records = 0;
+            while (parser.next()) {
+                records++;
+                if (parser.getError() != null) {
+                    bulkImport.reject(parser.getLineNumber(), parser.getError().getMessage());
+                } else {
+                    bulkImport.add(parser.getOrganism(), parser.getLineNumber());
+                }
+                if (records % PROGRESS_EVERY_ROWS == 0) {
+                    task.reportProgress(records);
+                    if (task.isCancelRequested()) {
+                        //keeps what was read so far and stops
+                        BulkImportResult result = bulkImport.finish();
+                        result.setCancelled(true);
+                        return result;
+                    }
+                }
+            }
+            return bulkImport.finish();
+        }
+    }
+
+    /**
+     * Reads every organism ID into the repository on a background thread. Until it finishes the add form's
+     * duplicate check uses a one row query instead.
+     */
+    private void loadIdsInBackground() {
+        BackgroundTask.run(task -> {
+                    repository.loadIds();
+                    return null;
+                },
+                ignored -> { },
+                this::showDatabaseError);
+    }
+
+    /**
+     * Shows an error from a background database task, on the event dispatch thread. A rejected value is shown
+     * as its message, anything else as a database error.
+     *
+     * @param ex the exception the task threw.
+     */
+    private void showDatabaseError(Exception ex) {
+        if (ex instanceof IllegalArgumentException) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+            return;
+        }
+        JOptionPane.showMessageDialog(this, "Database error:\n" + ex.getMessage());
+    }
+
     /**
      * Starts the program and constructs the new GUI
      * @param args
@@ -320,8 +394,13 @@ public class OrganismGUI extends JFrame {
             JOptionPane.showMessageDialog(null, "Please select an organism from the table.");
             return null;
         }
-        //gets value of ID at column 0
-        return JTOrganismTable.getValueAt(selectedRow, 0).toString();
+        //gets value of ID at column 0, which is empty while the row's page is still loading
+        Object id = JTOrganismTable.getValueAt(selectedRow, 0);
+        if (id == null) {
+            JOptionPane.showMessageDialog(null, "The table is still loading, please try again.");
+            return null;
+        }
+        return id.toString();
     }
 }
 
@@ -0,0 +1,317 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Append-only log of changes to an OrganismManager, so they survive the program exiting or crashing.
+ *
+ * Every change is one record: PUT with the whole organism as it is after an add or update, or REMOVE with an ID.
+ * Replaying a record gives the same result no matter how often it is replayed, so the log can always be replayed
+ * on top of a snapshot. Each record is framed as:
+ * <pre>
+ * int length of the payload, int CRC32C of the payload, payload (byte type, then the fields)
+ * </pre>
+ * Records are written to the file as they happen, so a crash of the program loses nothing. Forcing them to the
+ * disk is the slow part, so it is done for many records at once (group commit) by a background thread every
+ * commit interval, or when sync is called; a power failure can lose the changes of the last interval.
+ *
+ * When the log grows past its limit, compact writes a snapshot of every organism and empties the log. On start,
+ * recovery loads the snapshot and replays the log; a record cut off by a crash ends the replay and is
+ * cut off the file.
+ */
+public class OrganismJournal implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(OrganismJournal.class);
+
+    /** File names inside the journal directory. */
+    public static final String SNAPSHOT_FILE = "organisms.snapshot";
+    public static final String LOG_FILE = "organisms.journal";
+    /** How often records are forced to the disk when no interval is given. */
+    public static final long DEFAULT_COMMIT_MILLIS = 20;
+    /** Log size, in bytes, after which the manager compacts when no limit is given. */
+    public static final long DEFAULT_COMPACT_BYTES = 16L * 1024 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_BYTES = 8;
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final FileChannel channel;
+    private final long compactBytes;
+    private final ScheduledExecutorService committer;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer record = ByteBuffer.allocate(4096);
+    private long size;
+    //true when records were written since the last force
+    private boolean dirty;
+    private boolean closed;
+
+    /**
+     * Opens the journal in a directory, creating the log file if needed. Use replay before logging anything.
+     *
+     * @param directory where the snapshot and log files are kept.
+     * @param commitMillis how often written records are forced to the disk.
+     * @param compactBytes the log size after which needsCompaction returns true.
+     * @throws IOException if the log can't be opened.
+     */
+    public OrganismJournal(Path directory, long commitMillis, long compactBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.compactBytes = compactBytes;
+        this.size = channel.size();
+        this.committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "organism-journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commit, commitMillis, commitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the snapshot file that compact writes and recovery loads.
+     */
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Replays the log into a map of organisms by ID. A damaged or cut off record ends the replay, and it and
+     * everything after it are removed from the file.
+     *
+     * @param organisms the organisms from the snapshot, changed in place.
+     * @return the number of records replayed.
+     * @throws IOException if the log can't be read.
+     */
+    public synchronized int replay(Map<String, Organism> organisms) throws IOException {
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        byte[] bytes = new byte[256];
+        int replayed = 0;
+        long good = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            byte type = payload.get();
+            String id = getString(payload, bytes);
+            if (type == PUT) {
+                String clade = CategoryDictionary.canonical(getString(payload, bytes));
+                String genus = getString(payload, bytes);
+                int lifespan = payload.getInt();
+                String lifespanUnit = CategoryDictionary.canonical(getString(payload, bytes));
+                String features = getString(payload, bytes);
+                float averageLength = payload.getFloat();
+                String lengthUnit = CategoryDictionary.canonical(getString(payload, bytes));
+                organisms.put(id, new Organism(id, clade, genus, lifespan, lifespanUnit, features, averageLength, lengthUnit));
+            } else {
+                organisms.remove(id);
+            }
+            buffer.position(buffer.position() + length);
+            good = buffer.position();
+            replayed++;
+        }
+        if (good < size) {
+            logger.warn("Journal {} has a damaged record at byte {}, dropping the last {} bytes", logFile, good, size - good);
+            channel.truncate(good);
+            channel.force(true);
+            size = good;
+        }
+        logger.info("Replayed {} journal records from {}", replayed, logFile);
+        return replayed;
+    }
+
+    /**
+     * Logs an organism as it is after being added or updated.
+     *
+     * @param organism the organism.
+     */
+    public synchronized void logPut(Organism organism) {
+        record.clear();
+        record.position(HEADER_BYTES);
+        record.put(PUT);
+        putString(organism.getId());
+        putString(organism.getCladeName());
+        putString(organism.getGenusSpecies());
+        ensure(4);
+        record.putInt(organism.getLifespanEstimate());
+        putString(organism.getLifespanUnit());
+        putString(organism.getDefinitiveFeatures());
+        ensure(4);
+        record.putFloat(organism.getAverageLength());
+        putString(organism.getLengthUnit());
+        write();
+    }
+
+    /**
+     * Logs that an organism was removed.
+     *
+     * @param id the organism ID.
+     */
+    public synchronized void logRemove(String id) {
+        record.clear();
+        record.position(HEADER_BYTES);
+        record.put(REMOVE);
+        putString(id);
+        write();
+    }
+
+    /**
+     * @return true once the log has grown past its limit and compact should be called.
+     */
+    public synchronized boolean needsCompaction() {
+        return size > compactBytes;
+    }
+
+    /**
+     * Writes a snapshot of every organism, then empties the log. If the program stops in between, the old log
+     * is replayed on top of the new snapshot, which gives the same organisms.
+     *
+     * @param organisms every organism, as they are now.
+     * @throws IOException if the snapshot or log can't be written, the log is then left as it was.
+     */
+    public synchronized void compact(Collection<Organism> organisms) throws IOException {
+        OrganismSnapshot.write(snapshotFile, organisms);
+        channel.truncate(0);
+        channel.force(true);
+        size = 0;
+        dirty = false;
+        logger.info("Journal compacted into a snapshot of {} organisms", organisms.size());
+    }
+
+    /**
+     * Forces every record written so far to the disk.
+     *
+     * @throws IOException if the force fails.
+     */
+    public void sync() throws IOException {
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+            dirty = false;
+        }
+        //outside the lock, so changes can keep being logged while the disk catches up
+        channel.force(false);
+    }
+
+    /**
+     * @return the size of the log in bytes.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Forces the last records to the disk and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        committer.shutdown();
+        try {
+            committer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        synchronized (this) {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * Run by the background thread: the group commit.
+     */
+    private void commit() {
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.error("Journal force failed: {}", logFile, e);
+        }
+    }
+
+    /**
+     * Fills in the header of the record being built and appends it to the log.
+     */
+    private void write() {
+        int length = record.position() - HEADER_BYTES;
+        crc.reset();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putInt(0, length);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record, size + record.position());
+            }
+            size += record.limit();
+            dirty = true;
+        } catch (IOException e) {
+            //the change stays in memory, only its durability is lost
+            logger.error("Journal write failed: {}", logFile, e);
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensure(4);
+            record.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        record.putInt(bytes.length);
+        record.put(bytes);
+    }
+
+    /**
+     * Grows the record buffer if n more bytes don't fit.
+     */
+    private void ensure(int n) {
+        if (record.remaining() < n) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + n));
+            record.flip();
+            bigger.put(record);
+            record = bigger;
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismJournalTest {
+
+    @org.junit.jupiter.api.Test
+    void recoversChangesAfterCrash() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            OrganismManager manager = new OrganismManager();
+            assertEquals(0, manager.openJournal(dir.toString()));
+            manager.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", "extinct", 50.5F, "m"));
+            manager.addOrganism(new Organism("00022", "Lycophyta", "Sigillaria", 20, "years", null, 500F, "cm"));
+            manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years", "fur", 1300F, "mm"));
+            manager.removeOrganism("00021");
+            manager.updateOrganism("00100", "clade", "Aves");
+            manager.syncJournal();
+
+            //never closed, like a crash; then a half written record at the end
+            try (FileChannel log = FileChannel.open(dir.resolve(OrganismJournal.LOG_FILE), StandardOpenOption.APPEND)) {
+                log.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2}));
+            }
+
+            OrganismManager recovered = new OrganismManager();
+            assertEquals(2, recovered.openJournal(dir.toString()));
+            assertFalse(recovered.idDuplicate("00021"));
+            assertNull(recovered.getOrganism("00022").getDefinitiveFeatures());
+            assertEquals("Aves", recovered.getOrganism("00100").getCladeName());
+            assertEquals(manager.getAvg("Lycophyta"), recovered.getAvg("Lycophyta"));
+
+            //the torn record is cut off, so new changes replay as well
+            recovered.removeOrganism("00022");
+            recovered.syncJournal();
+            OrganismManager again = new OrganismManager();
+            assertEquals(1, again.openJournal(dir.toString()));
+            again.closeJournal();
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void compactsIntoSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            OrganismManager manager = new OrganismManager();
+            manager.openJournal(dir.toString(), 1000, 4096);
+            for (int i = 0; i < 200; i++) {
+                manager.addOrganism(new Organism(String.format("%05d", i), "Aves", "Aquila", 30, "years", "wings", 80F, "cm"));
+            }
+            manager.removeOrganisms(List.of("00000", "00001"));
+            assertTrue(Files.size(dir.resolve(OrganismJournal.LOG_FILE)) <= 4096 + 100);
+            assertTrue(Files.exists(dir.resolve(OrganismJournal.SNAPSHOT_FILE)));
+            manager.closeJournal();
+            assertEquals(0, Files.size(dir.resolve(OrganismJournal.LOG_FILE)));
+
+            OrganismManager recovered = new OrganismManager();
+            assertEquals(198, recovered.openJournal(dir.toString()));
+            recovered.closeJournal();
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void compactsOnceAfterFileLoad() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("organisms.txt");
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                lines.append(String.format("%05d-Aves-Aquila-30-years-wings-80-cm%n", i));
+            }
+            Files.writeString(file, lines);
+
+            OrganismManager manager = new OrganismManager();
+            manager.openJournal(dir.toString(), 1000, 4096);
+            manager.loadFile(file.toString());
+            //the whole load went into the journal and was compacted at the end, not every 4096 bytes
+            assertEquals(0, Files.size(dir.resolve(OrganismJournal.LOG_FILE)));
+
+            OrganismManager recovered = new OrganismManager();
+            manager.closeJournal();
+            assertEquals(200, recovered.openJournal(dir.toString()));
+            recovered.closeJournal();
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void failedCompactionKeepsChanges() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        Path file = dir.resolve("organisms.txt");
+        try {
+            //more distinct clades than a snapshot can hold
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i <= Short.MAX_VALUE; i++) {
+                lines.append(String.format("%05d-Clade %d-Aquila-30-years-wings-80-cm%n", i, i));
+            }
+            Files.writeString(file, lines);
+
+            OrganismManager manager = new OrganismManager();
+            manager.openJournal(dir.toString(), 1000, 4096);
+            assertEquals("File uploaded correctly. 32768 organisms were successfully added.", manager.loadFile(file.toString()));
+            assertTrue(manager.addOrganism(new Organism("99999", "Aves", "Aquila", 30, "years", "wings", 80F, "cm")));
+            assertThrows(IOException.class, manager::closeJournal);
+
+            //the journal was kept, so everything replays
+            OrganismManager recovered = new OrganismManager();
+            assertEquals(32769, recovered.openJournal(dir.toString()));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
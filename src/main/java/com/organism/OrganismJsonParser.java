@@ -0,0 +1,263 @@
+package com.organism;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streaming parser for organisms in JSON: either one array of objects, or objects one after another
+ * like JSON Lines. Tokens are read with Jackson's JsonParser, so no tree is built and memory use doesn't
+ * depend on the size of the file.
+ *
+ * Property names can be the ones OrganismExporter writes (id, cladeName, genusSpecies, lifespanEstimate,
+ * lifespanUnit, definitiveFeatures, averageLength, lengthUnit) or the database column names (organism_id, clade,
+ * species, lifespan, lifespan_unit, features, average_length, length_unit); other properties are skipped.
+ * Numbers may be JSON numbers or strings. Every record is checked with the same rules and errors as
+ * OrganismParser, and text values are trimmed the same way. Unlike the text format, any value can hold a dash.
+ */
+public class OrganismJsonParser implements OrganismSource {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /** Every property name that is read, the rest are skipped. */
+    private static final Set<String> PROPERTIES = Set.of("id", "organism_id", "cladeName", "clade", "genusSpecies",
+            "species", "lifespanEstimate", "lifespan", "lifespanUnit", "lifespan_unit", "definitiveFeatures", "features",
+            "averageLength", "average_length", "lengthUnit", "length_unit");
+    //the lifespan when the record has none
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final JsonParser json;
+    private final CategoryDictionary categories = new CategoryDictionary();
+    private boolean started;
+    private boolean inArray;
+    private long lineNumber;
+
+    private Organism organism;
+    private OrganismParser.ParseError error;
+
+    //the record being read
+    private String id;
+    private String clade;
+    private String genus;
+    private long lifespan;
+    private String lifespanUnit;
+    private String features;
+    private float averageLength;
+    private String lengthUnit;
+    private boolean badStructure;
+
+    /**
+     * Creates a parser that reads from a Reader.
+     *
+     * @param reader the JSON text, closed when the parser is closed.
+     * @throws IOException if the parser can't be created.
+     */
+    public OrganismJsonParser(Reader reader) throws IOException {
+        this.json = JSON_FACTORY.createParser(reader);
+    }
+
+    /**
+     * Creates a parser that reads JSON from an InputStream, detecting its encoding.
+     *
+     * @param in the JSON bytes, closed when the parser is closed.
+     * @throws IOException if the parser can't be created.
+     */
+    public OrganismJsonParser(InputStream in) throws IOException {
+        this.json = JSON_FACTORY.createParser(in);
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        organism = null;
+        error = null;
+        JsonToken token = json.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                inArray = true;
+                token = json.nextToken();
+            }
+        }
+        if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+            return false;
+        }
+        lineNumber = json.currentTokenLocation().getLineNr();
+        if (token != JsonToken.START_OBJECT) {
+            json.skipChildren();
+            error = new OrganismParser.ParseError(lineNumber, OrganismParser.ErrorType.FORMAT);
+            return true;
+        }
+        readObject();
+        validate();
+        return true;
+    }
+
+    @Override
+    public Organism getOrganism() {
+        return organism;
+    }
+
+    @Override
+    public OrganismParser.ParseError getError() {
+        return error;
+    }
+
+    @Override
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+
+    /**
+     * Reads the properties of one object, the parser is on its START_OBJECT.
+     */
+    private void readObject() throws IOException {
+        id = null;
+        clade = null;
+        genus = null;
+        lifespan = MISSING;
+        lifespanUnit = null;
+        features = null;
+        averageLength = Float.NaN;
+        lengthUnit = null;
+        badStructure = false;
+
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String name = json.currentName();
+            JsonToken value = json.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                json.skipChildren();
+                badStructure |= PROPERTIES.contains(name);
+                continue;
+            }
+            switch (name) {
+                case "id":
+                case "organism_id":
+                    id = text(value);
+                    break;
+                case "cladeName":
+                case "clade":
+                    clade = category(value);
+                    break;
+                case "genusSpecies":
+                case "species":
+                    genus = text(value);
+                    break;
+                case "lifespanEstimate":
+                case "lifespan":
+                    lifespan = intValue(value);
+                    break;
+                case "lifespanUnit":
+                case "lifespan_unit":
+                    lifespanUnit = category(value);
+                    break;
+                case "definitiveFeatures":
+                case "features":
+                    features = text(value);
+                    break;
+                case "averageLength":
+                case "average_length":
+                    averageLength = floatValue(value);
+                    break;
+                case "lengthUnit":
+                case "length_unit":
+                    lengthUnit = category(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Checks the record in the same order as OrganismParser, setting either organism or error.
+     */
+    private void validate() {
+        OrganismParser.ErrorType type = null;
+        if (badStructure) {
+            type = OrganismParser.ErrorType.FORMAT;
+        } else if (!OrganismValidator.isValidId(id)) {
+            type = OrganismParser.ErrorType.ID;
+        } else if (lifespan == MISSING || Float.isNaN(averageLength)) {
+            type = OrganismParser.ErrorType.NUMBER;
+        } else if (lifespan <= 0) {
+            type = OrganismParser.ErrorType.LIFESPAN;
+        } else if (averageLength <= 0) {
+            type = OrganismParser.ErrorType.LENGTH;
+        } else if (!OrganismValidator.isValidLengthUnit(lengthUnit)) {
+            type = OrganismParser.ErrorType.LENGTH_UNIT;
+        }
+        if (type != null) {
+            error = new OrganismParser.ParseError(lineNumber, type);
+            return;
+        }
+        organism = new Organism(id, clade, genus, (int) lifespan, lifespanUnit, features, averageLength, lengthUnit);
+    }
+
+    /**
+     * @return the value as trimmed text, or null for JSON null.
+     */
+    private String text(JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : json.getText().trim();
+    }
+
+    /**
+     * @return the shared String for a categorical value, found straight from the parser's buffer.
+     */
+    private String category(JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        char[] chars = json.getTextCharacters();
+        int start = json.getTextOffset();
+        int end = start + json.getTextLength();
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return categories.canonical(chars, start, end);
+    }
+
+    /**
+     * @return the value as an int, or MISSING if it isn't a whole number that fits one.
+     */
+    private long intValue(JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return json.getNumberType() == JsonParser.NumberType.INT ? json.getIntValue() : MISSING;
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Integer.parseInt(json.getText().trim());
+            } catch (NumberFormatException e) {
+                return MISSING;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return the value as a float, or NaN if it isn't a number.
+     */
+    private float floatValue(JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return json.getFloatValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Float.parseFloat(json.getText().trim());
+            } catch (NumberFormatException e) {
+                return Float.NaN;
+            }
+        }
+        return Float.NaN;
+    }
+}
@@ -0,0 +1,101 @@
+package com.organism;
+
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismJsonParserTest {
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("parses an array of objects, dashes and all")
+    void parseArray() throws IOException {
+        OrganismJsonParser parser = new OrganismJsonParser(new StringReader("[\n"
+                + "  {\"id\": \" 00021\", \"cladeName\": \"Lycophyta\", \"genusSpecies\": \"Lepidodendron-aculeatum\","
+                + " \"lifespanEstimate\": 15, \"lifespanUnit\": \"years\", \"definitiveFeatures\": \"scale-tree\","
+                + " \"averageLength\": 50.5, \"lengthUnit\": \"m\", \"source\": {\"ref\": [1, 2]}},\n"
+                + "  {\"organism_id\": \"00022\", \"clade\": \"Lycophyta\", \"lifespan\": \"20\", \"average_length\": 5,"
+                + " \"length_unit\": \"cm\"}\n"
+                + "]"));
+        assertTrue(parser.next());
+        Organism organism = parser.getOrganism();
+        assertEquals("00021", organism.getId());
+        assertEquals("Lepidodendron-aculeatum", organism.getGenusSpecies());
+        assertEquals("scale-tree", organism.getDefinitiveFeatures());
+        assertEquals(50.5F, organism.getAverageLength());
+        assertEquals(2, parser.getLineNumber());
+        assertTrue(parser.next());
+        organism = parser.getOrganism();
+        assertEquals(20, organism.getLifespanEstimate());
+        assertNull(organism.getDefinitiveFeatures());
+        //categories share one String with the ones from the text parser
+        assertSame(CategoryDictionary.canonical("Lycophyta"), organism.getCladeName());
+        assertFalse(parser.next());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("reports the same typed errors as the text parser")
+    void parseErrors() throws IOException {
+        OrganismJsonParser parser = new OrganismJsonParser(new StringReader(
+                "{\"id\": \"0001\", \"lifespanEstimate\": 5, \"averageLength\": 8, \"lengthUnit\": \"cm\"}\n"
+                        + "{\"id\": \"00015\", \"lifespanEstimate\": 5.5, \"averageLength\": 8, \"lengthUnit\": \"cm\"}\n"
+                        + "{\"id\": \"00015\", \"lifespanEstimate\": -5, \"averageLength\": 8, \"lengthUnit\": \"cm\"}\n"
+                        + "{\"id\": \"00015\", \"lifespanEstimate\": 5, \"averageLength\": 8, \"lengthUnit\": \"in\"}\n"
+                        + "{\"id\": [\"00015\"]}\n"
+                        + "42\n"));
+        OrganismParser.ErrorType[] expected = {OrganismParser.ErrorType.ID, OrganismParser.ErrorType.NUMBER,
+                OrganismParser.ErrorType.LIFESPAN, OrganismParser.ErrorType.LENGTH_UNIT,
+                OrganismParser.ErrorType.FORMAT, OrganismParser.ErrorType.FORMAT};
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(parser.next());
+            assertNull(parser.getOrganism());
+            assertEquals(expected[i], parser.getError().getType());
+            assertEquals(i + 1, parser.getError().getLine());
+        }
+        assertFalse(parser.next());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("loads an exported JSON Lines file back into a manager")
+    void roundTrip() throws IOException {
+        Path file = Files.createTempFile("organisms", ".jsonl");
+        try {
+            OrganismManager manager = new OrganismManager();
+            manager.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", "scale-tree", 50.5F, "m"));
+            manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years", "fur", 1300F, "mm"));
+            manager.export(file.toString(), ExportFormat.JSON_LINES, false);
+
+            OrganismManager loaded = new OrganismManager();
+            assertEquals("File uploaded correctly. 2 organisms were successfully added.", loaded.loadFile(file.toString()));
+            assertEquals("scale-tree", loaded.getOrganism("00021").getDefinitiveFeatures());
+            assertEquals("Line 1: has a duplicate ID.", loaded.loadFile(file.toString()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("loads a gzipped JSON Lines export back, on one thread even when asked for the parallel loader")
+    void roundTripGzip() throws IOException {
+        Path file = Files.createTempFile("organisms", ".jsonl.gz");
+        try {
+            OrganismManager manager = new OrganismManager();
+            manager.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", "scale-tree", 50.5F, "m"));
+            manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "years", "fur", 1300F, "mm"));
+            manager.export(file.toString(), ExportFormat.JSON_LINES, true);
+
+            OrganismManager loaded = new OrganismManager();
+            assertEquals("File uploaded correctly. 2 organisms were successfully added.", loaded.loadFile(file.toString()));
+            assertEquals(1300F, loaded.getOrganism("00100").getAverageLength());
+
+            OrganismManager parallel = new OrganismManager();
+            assertEquals("File uploaded correctly. 2 organisms were successfully added.", parallel.loadFileParallel(file.toString()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
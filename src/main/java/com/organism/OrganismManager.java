@@ -1,8 +1,22 @@
 package com.organism;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.ThreadContext;
@@ -14,16 +28,54 @@ import org.apache.logging.log4j.ThreadContext;
  */
 public class OrganismManager {
 
-        private ArrayList<Organism> organisms = new ArrayList<>();
+    /**
+     * Organisms keyed by their ID. A LinkedHashMap keeps the insertion order for display
+     * while lookups, adds and removes by ID stay O(1) instead of scanning a list.
+     */
+        private LinkedHashMap<String, Organism> organisms = new LinkedHashMap<>();
     private static final Logger logger = LogManager.getLogger(OrganismManager.class);
 
     /**
-     * Returns the list of organisms.
+     * Running length totals per clade in centimeters. These are updated on every add, remove and
+     * update so the clade averages never have to rescan the organisms.
+     */
+    private LinkedHashMap<String, CladeTotal> cladeTotals = new LinkedHashMap<>();
+
+    /**
+     * Sum of lengths (in cm) and number of organisms for one clade.
+     */
+    private static class CladeTotal {
+        double sumCentimeters;
+        int count;
+    }
+
+    /**
+     * Word index for search, built by the first search and then kept up to date like the clade totals.
+     * Null until then, so loading files doesn't pay for it unless search is used.
+     */
+    private OrganismTextIndex textIndex;
+    //every change is logged here once openJournal is called
+    private OrganismJournal journal;
+    //above 0 while a bulk change runs, compaction then waits for its end so it happens once, not every few rows
+    private int bulkChanges;
+
+    /**
+     * Returns the list of organisms in the order they were added.
      *
-     * @return the list containing all stored organisms.
+     * @return a list containing all stored organisms.
      */
         public ArrayList<Organism> getOrganisms(){
-            return organisms;
+            return new ArrayList<>(organisms.values());
+        }
+
+    /**
+     * Looks up an organism by its ID.
+     *
+     * @param id the organism ID.
+     * @return the organism with that ID, or null if it doesn't exist.
+     */
+        public Organism getOrganism(String id) {
+            return organisms.get(id);
         }
 
     /**
@@ -33,12 +85,7 @@ public class OrganismManager {
      *  @return true if organism id is not a duplicate, false if it is a duplicate.
      */
         public boolean idDuplicate(String id) {
-            for (Organism organism : organisms) {
-                if (organism.getId().equals(id)) {
-                    return true;
-                }
-            }
-            return false;
+            return organisms.containsKey(id);
         }
 
     /**
@@ -60,7 +107,9 @@ public class OrganismManager {
             return false;
         }
 
-        organisms.add(organism);
+        organisms.put(organism.getId(), organism);
+        addToIndexes(organism);
+        logPut(organism);
         logger.info("Organism successfully added: {}", organism.getId());
         return true;
     }
@@ -74,38 +123,192 @@ public class OrganismManager {
     public Organism removeOrganism(String id){
         logger.info("Attempting to remove organism with ID: {}", id);
 
-        for (int i = 0; i < organisms.size(); i++){
-            if (organisms.get(i).getId().equals(id)) {
-                Organism removed = organisms.remove(i);
-                logger.info("Successfully removed organism: {}", id);
-                return removed;
-            }
+        Organism removed = organisms.remove(id);
+        if (removed != null) {
+            removeFromIndexes(removed);
+            logRemove(id);
+            logger.info("Successfully removed organism: {}", id);
+            return removed;
         }
 
         logger.warn("Remove failed: no organism found with ID {}", id);
         return null;
     }
 
+    /**
+     * Removes every organism with an ID in the collection.
+     *
+     * @param ids the IDs to remove, IDs that don't exist are skipped.
+     * @return the number of organisms removed.
+     */
+    public int removeOrganisms(Collection<String> ids) {
+        int removed = 0;
+        beginBulkChange();
+        try {
+            for (String id : ids) {
+                Organism organism = organisms.remove(id);
+                if (organism != null) {
+                    removeFromIndexes(organism);
+                    logRemove(id);
+                    removed++;
+                }
+            }
+        } finally {
+            endBulkChange();
+        }
+        logger.info("Removed {} of {} organisms by ID", removed, ids.size());
+        return removed;
+    }
+
+    /**
+     * Removes every organism that matches a filter, in one pass over the organisms.
+     *
+     * @param filter which organisms to remove, for example OrganismFilter.cladeEquals.
+     * @return the number of organisms removed.
+     */
+    public int removeOrganismsIf(Predicate<? super Organism> filter) {
+        int removed = 0;
+        beginBulkChange();
+        try {
+            Iterator<Organism> it = organisms.values().iterator();
+            while (it.hasNext()) {
+                Organism organism = it.next();
+                if (filter.test(organism)) {
+                    it.remove();
+                    removeFromIndexes(organism);
+                    logRemove(organism.getId());
+                    removed++;
+                }
+            }
+        } finally {
+            endBulkChange();
+        }
+        logger.info("Removed {} organisms matching {}", removed, filter);
+        return removed;
+    }
+
+    /**
+     * Finds organisms with a query. A filter on one ID looks it up directly, and a filter on a clade
+     * that has no organisms returns straight away; otherwise every organism is checked once.
+     *
+     * @param query the filter, order, limit and offset.
+     * @return the matching organisms in the query's order.
+     */
+    public List<Organism> query(OrganismQuery query) {
+        OrganismFilter filter = query.getFilter();
+        if (filter != null) {
+            Object id = filter.equalityValue(QueryField.ID);
+            if (id != null) {
+                Organism organism = organisms.get(id);
+                return query.run(organism == null ? List.of() : List.of(organism));
+            }
+            Object clade = filter.equalityValue(QueryField.CLADE);
+            if (clade != null && !cladeTotals.containsKey(clade)) {
+                return new ArrayList<>();
+            }
+        }
+        return query.run(organisms.values());
+    }
+
+    /**
+     * Searches the genus and species, features and clade of every organism for words.
+     *
+     * @param text words that must all be found, a word ending in * matches as a prefix, like "extinct prehist*".
+     * @param limit the most organisms to return.
+     * @return the matching organisms, best match first.
+     */
+    public List<Organism> search(String text, int limit) {
+        if (textIndex == null) {
+            logger.info("Building text index for {} organisms", organisms.size());
+            textIndex = new OrganismTextIndex();
+            for (Organism organism : organisms.values()) {
+                textIndex.add(organism);
+            }
+        }
+        List<Organism> found = new ArrayList<>();
+        for (String id : textIndex.search(text, limit)) {
+            found.add(organisms.get(id));
+        }
+        return found;
+    }
+
     /**
      * Method to display all organisms.
      *
      * Uses a tabled layout formatted to give each attribute a certain amount of space.
      */
         public void displayOrganisms(){
-            //rearranged display to show in a tabled format, dashes are for left-alignment
-            System.out.printf("%-8s %-20s %-40s %-15s %-15s %-60s %-15s %-15s%n",
-                    "ID |", "| Clade |", "| Genus & Species |", "| Lifespan |", "| Lifespan Unit |", "| Features |", "| Avg Length |", "| Length Unit|");
-            System.out.println("---------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------");
-
-            // Table rows
-            for (Organism organism : organisms) {
-                System.out.printf("%-8s %-20s %-40s %-15d %-15s %-60s %-15.2f %-15s%n",
-                        organism.getId(), organism.getCladeName(), organism.getGenusSpecies(),
-                        organism.getLifespanEstimate(), organism.getLifespanUnit(), organism.getDefinitiveFeatures(),
-                        organism.getAverageLength(), organism.getLengthUnit());
-            }
+            printOrganisms(organisms.values(), 0, Long.MAX_VALUE);
+        }
+
+    /**
+     * Displays one page of organisms, in the same layout as displayOrganisms.
+     *
+     * @param from index of the first organism to show, starting at 0.
+     * @param to index after the last organism to show.
+     */
+    public void displayOrganisms(long from, long to) {
+        printOrganisms(organisms.values(), from, to);
+    }
 
+    /**
+     * Displays the first organisms.
+     *
+     * @param count the most organisms to show.
+     */
+    public void displayHead(int count) {
+        displayOrganisms(0, count);
+    }
+
+    /**
+     * Displays the last organisms. The ones before them are skipped without being formatted.
+     *
+     * @param count the most organisms to show.
+     */
+    public void displayTail(int count) {
+        displayOrganisms(Math.max(0, organisms.size() - count), organisms.size());
+    }
+
+    /**
+     * Writes a page of organisms to a file, in the same layout as displayOrganisms.
+     *
+     * @param filePath the file, replaced if it exists.
+     * @param from index of the first organism to write, starting at 0.
+     * @param to index after the last organism to write.
+     * @return the number of organisms written.
+     * @throws IOException if the file can't be written.
+     */
+    public long writeTable(String filePath, long from, long to) throws IOException {
+        try (Writer out = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            return new OrganismTableRenderer(out).render(organisms.values(), from, to);
+        }
+    }
+
+    /**
+     * Prints all organisms in the tabled layout used by displayOrganisms.
+     *
+     * @param rows the organisms to print, in display order.
+     */
+    static void printOrganisms(Iterable<Organism> rows) {
+        printOrganisms(rows, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Prints a page of organisms to standard output with an OrganismTableRenderer.
+     *
+     * @param rows the organisms, in display order.
+     * @param from index of the first organism to print.
+     * @param to index after the last organism to print.
+     */
+    private static void printOrganisms(Iterable<Organism> rows, long from, long to) {
+        //System.out is flushed by the renderer, not closed
+        Writer out = new OutputStreamWriter(System.out);
+        try {
+            new OrganismTableRenderer(out).render(rows, from, to);
+        } catch (IOException e) {
+            logger.error("Display failed", e);
         }
+    }
 
     /**
      * Updates a specific attribute of an organism based on its ID.
@@ -118,56 +321,116 @@ public class OrganismManager {
     public boolean updateOrganism(String id, String attribute, String newValue) {
         logger.info("Update request | ID: {} | Attribute: {} | Value: {}",
                 id, attribute, newValue);
-        for (Organism organism : organisms) {
-            if (organism.getId().equals(id)) {
-                logger.debug("Found organism for update: {}", id);
-                switch (attribute.toLowerCase()) {
-                    case "clade":
-                        organism.setCladeName(newValue);
-                        logger.info("Updated clade for ID {}", id);
-                        return true;
-                    case "genus":
-                        organism.setGenusSpecies(newValue);
-                        return true;
-                    case "lifespan":
-                        try {
-                            int lifespan = Integer.parseInt(newValue);
-                            if (lifespan <= 0) return false;
-                            logger.warn("Invalid lifespan value for ID {}", id);
-                            organism.setLifespanEstimate(lifespan);
-                            logger.info("Updated lifespan for ID {}", id);
-                            return true;
-                        } catch (NumberFormatException e) {
-                            logger.error("Lifespan parse error for ID {}", id, e);
-                            return false;
-                        }
-                    case "lifespan unit":
-                        organism.setLifespanUnit(newValue);
-                        return true;
-                    case "features":
-                        organism.setDefinitiveFeatures(newValue);
-                        return true;
-                    case "average length":
-                    case "average":
-                        try {
-                            float avg = Float.parseFloat(newValue);
-                            if (avg <= 0) return false;
-                            organism.setAverageLength(avg);
-                            return true;
-                        } catch (NumberFormatException e) {
-                            return false;
-                        }
-                    case "lengthunit":
-                        organism.setLengthUnit(newValue);
-                        return newValue.equals("mm") || newValue.equals("cm") || newValue.equals("m");
-                    default:
-                        logger.warn("Invalid attribute update attempt: {}", attribute);
-                        return false;
+        Organism organism = organisms.get(id);
+        if (organism == null) {
+            logger.warn("Update failed: organism not found with ID {}", id);
+            return false;
+        }
+        logger.debug("Found organism for update: {}", id);
+
+        //take the organism out of its clade total first, since the clade or length might change
+        removeFromIndexes(organism);
+        boolean updated = applyUpdate(organism, attribute, newValue);
+        addToIndexes(organism);
+        //logged even when the update failed, a bad length unit is still set before it is rejected
+        logPut(organism);
+        return updated;
+    }
+
+    /**
+     * Applies several patches in order. Every value of a patch is checked before any of them is set, so a patch
+     * is applied whole or not at all.
+     *
+     * @param patches the changes to make.
+     * @return one result per patch, in the same order.
+     */
+    public BatchUpdateResult updateOrganisms(List<OrganismPatch> patches) {
+        BatchUpdateResult result = new BatchUpdateResult();
+        beginBulkChange();
+        try {
+            for (OrganismPatch patch : patches) {
+                String id = patch.getId();
+                Map<OrganismField, Object> values;
+                try {
+                    values = patch.parse();
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid patch for ID {}: {}", id, e.getMessage());
+                    result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.INVALID, e.getMessage()));
+                    continue;
+                }
+                Organism organism = organisms.get(id);
+                if (organism == null) {
+                    result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.NOT_FOUND, "No organism with ID " + id + "."));
+                    continue;
                 }
+                removeFromIndexes(organism);
+                for (Map.Entry<OrganismField, Object> entry : values.entrySet()) {
+                    entry.getKey().apply(organism, entry.getValue());
+                }
+                addToIndexes(organism);
+                logPut(organism);
+                result.add(new BatchUpdateResult.Outcome(id, BatchUpdateResult.Status.UPDATED, null));
             }
+        } finally {
+            endBulkChange();
+        }
+        logger.info("Batch update: {} of {} patches applied", result.getUpdated(), patches.size());
+        return result;
+    }
+
+    /**
+     * Sets a single attribute on the organism, validating the new value first.
+     *
+     * @param organism the organism to change.
+     * @param attribute the field to update.
+     * @param newValue the new value to assign to the attribute.
+     * @return true if the update was successful; false if invalid attribute or value.
+     */
+    static boolean applyUpdate(Organism organism, String attribute, String newValue) {
+        String id = organism.getId();
+        switch (attribute.toLowerCase()) {
+            case "clade":
+                organism.setCladeName(CategoryDictionary.canonical(newValue));
+                logger.info("Updated clade for ID {}", id);
+                return true;
+            case "genus":
+                organism.setGenusSpecies(newValue);
+                return true;
+            case "lifespan":
+                try {
+                    int lifespan = Integer.parseInt(newValue);
+                    if (lifespan <= 0) return false;
+                    logger.warn("Invalid lifespan value for ID {}", id);
+                    organism.setLifespanEstimate(lifespan);
+                    logger.info("Updated lifespan for ID {}", id);
+                    return true;
+                } catch (NumberFormatException e) {
+                    logger.error("Lifespan parse error for ID {}", id, e);
+                    return false;
+                }
+            case "lifespan unit":
+                organism.setLifespanUnit(CategoryDictionary.canonical(newValue));
+                return true;
+            case "features":
+                organism.setDefinitiveFeatures(newValue);
+                return true;
+            case "average length":
+            case "average":
+                try {
+                    float avg = Float.parseFloat(newValue);
+                    if (avg <= 0) return false;
+                    organism.setAverageLength(avg);
+                    return true;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            case "lengthunit":
+                organism.setLengthUnit(CategoryDictionary.canonical(newValue));
+                return newValue.equals("mm") || newValue.equals("cm") || newValue.equals("m");
+            default:
+                logger.warn("Invalid attribute update attempt: {}", attribute);
+                return false;
         }
-        logger.warn("Update failed: organism not found with ID {}", id);
-        return false;
     }
     /**
      * Method that computes and displays the average organism length for each clade.
@@ -183,17 +446,11 @@ public class OrganismManager {
             System.out.println("No organisms available.");
             return false;
         }
-//create an array here to go by clades
-        ArrayList<String> enteredClades = new ArrayList<>();
-
-        for (Organism organism : organisms) {
-            String clade = organism.getCladeName();
-            if (enteredClades.contains(clade)) continue;
-
-            float avg = getAvg(clade);
-            System.out.printf("Clade: %s | Average Length: %.2f cm%n", clade, avg);
-                enteredClades.add(clade);
-
+        //clade totals are already kept up to date, so this is one line per clade
+        for (Map.Entry<String, CladeTotal> entry : cladeTotals.entrySet()) {
+            CladeTotal total = entry.getValue();
+            float avg = (float) (total.sumCentimeters / total.count);
+            System.out.printf("Clade: %s | Average Length: %.2f cm%n", entry.getKey(), avg);
         }
         return true;
     }
@@ -201,65 +458,269 @@ public class OrganismManager {
      * Calculation method for the average length in cm of organisms belonging to a clade.
      *
      * @param clade the clade to calculate.
-     * @return the average length in centimeters.
+     * @return the average length in centimeters, or 0 if no organisms match.
      */
     public float getAvg(String clade) {
-        float totalForCentimeters = 0;
-        int count = 0;
-        for (Organism org : organisms) {
-            if (org.getCladeName().equals(clade)) {
-                float measurement = org.getAverageLength();
-                String unit = org.getLengthUnit().toLowerCase();
-                // Convert to cm here
-                switch (unit) {
-                    case "m":
-                        measurement *= 100;
-                        break;
-                    case "mm":
-                        measurement /= 10;
-                        break;
-                }
-                totalForCentimeters += measurement;
-                count++;
-            }
+        CladeTotal total = cladeTotals.get(clade);
+        if (total == null) {
+            return 0;
         }
-        float avg = totalForCentimeters / count;
-        return avg;
+        return (float) (total.sumCentimeters / total.count);
     }
 
     /**
      * Returns the calculated average length for a given clade.
-     * Made for testing the custom average-length method.
+     * Made for testing the custom average-length method, reads the same clade totals as getAvg.
      *
      * @param cladeName the clade to calculate.
      * @return the average length in centimeters, or 0 if no organisms match.
      */
     public float getCustomMethodAverage(String cladeName){
-            float sumOfClade = 0;
-            int divisor = 0;
-            for (Organism organism : organisms){
-                if(organism.getCladeName().equals(cladeName)){
-                    float length = organism.getAverageLength();
-                    String unitLength = organism.getLengthUnit();
-
-                    switch(unitLength){
-                        case "m": length*= 100; break;
-                        case "mm": length/= 100; break;
-                    }
-                    sumOfClade += length;
-                    divisor++;
-                }
+            return getAvg(cladeName);
+    }
+
+    /**
+     * Converts a length to centimeters. Unknown units are treated as centimeters.
+     *
+     * @param length the length value.
+     * @param unit the unit of the length (mm, cm, or m).
+     * @return the length in centimeters.
+     */
+    static float toCentimeters(float length, String unit) {
+        LengthUnit lengthUnit = LengthUnit.fromSymbol(unit);
+        return lengthUnit == null ? length : lengthUnit.toCentimeters(length);
+    }
+
+    /**
+     * Adds an organism's length to the running total for its clade, and its words to the text index if
+     * there is one.
+     *
+     * @param organism the organism being added.
+     */
+    private void addToIndexes(Organism organism) {
+        CladeTotal total = cladeTotals.computeIfAbsent(organism.getCladeName(), k -> new CladeTotal());
+        total.sumCentimeters += organism.getLengthCentimeters();
+        total.count++;
+        if (textIndex != null) {
+            textIndex.add(organism);
+        }
+    }
+
+    /**
+     * Takes an organism's length back out of the running total for its clade, and its words out of the
+     * text index. The clade is dropped once it has no organisms left.
+     *
+     * @param organism the organism being removed.
+     */
+    private void removeFromIndexes(Organism organism) {
+        if (textIndex != null) {
+            textIndex.remove(organism.getId());
+        }
+        CladeTotal total = cladeTotals.get(organism.getCladeName());
+        if (total == null) {
+            return;
+        }
+        total.count--;
+        if (total.count == 0) {
+            cladeTotals.remove(organism.getCladeName());
+        } else {
+            total.sumCentimeters -= organism.getLengthCentimeters();
+        }
+    }
+
+    /**
+     * Saves every organism to a binary snapshot file, see OrganismSnapshot.
+     *
+     * @param filePath the snapshot file, replaced if it exists.
+     * @throws IOException if the file can't be written.
+     */
+    public void saveSnapshot(String filePath) throws IOException {
+        OrganismSnapshot.write(Paths.get(filePath), organisms.values());
+    }
+
+    /**
+     * Replaces every organism with the ones in a binary snapshot file. The organisms were checked when they
+     * were saved, so they are not checked again. If the file can't be read nothing changes.
+     * With a journal open, the journal is compacted so it starts from the loaded organisms.
+     *
+     * @param filePath the snapshot file.
+     * @return the number of organisms loaded.
+     * @throws IOException if the file can't be read or is damaged.
+     */
+    public int loadSnapshot(String filePath) throws IOException {
+        List<Organism> loaded = OrganismSnapshot.read(Paths.get(filePath));
+        //sized up front so the map doesn't rehash as it fills
+        organisms = new LinkedHashMap<>(loaded.size() * 4 / 3 + 1);
+        cladeTotals.clear();
+        textIndex = null;
+        for (Organism organism : loaded) {
+            organisms.put(organism.getId(), organism);
+            addToIndexes(organism);
+        }
+        if (journal != null) {
+            journal.compact(organisms.values());
+        }
+        return loaded.size();
+    }
+
+    /**
+     * Writes every organism to a file, in the order they are stored, see OrganismExporter.
+     *
+     * @param filePath the file, replaced if it exists.
+     * @param format CSV, JSON Lines or the dash upload format.
+     * @param gzip true to gzip the file.
+     * @return the number of organisms written.
+     * @throws IOException if the file can't be written.
+     */
+    public long export(String filePath, ExportFormat format, boolean gzip) throws IOException {
+        try (OrganismExporter exporter = new OrganismExporter(Paths.get(filePath), format, gzip)) {
+            exporter.writeAll(organisms.values());
+            logger.info("Exported {} organisms to {}", exporter.getCount(), filePath);
+            return exporter.getCount();
+        }
+    }
+
+    /**
+     * Recovers the organisms from a journal directory and logs every change after this to it, see OrganismJournal.
+     * The directory's snapshot is loaded, if there is one, and the journal is replayed on top of it; the
+     * organisms stored before the call are replaced.
+     *
+     * @param directory where the snapshot and journal are kept, created if needed.
+     * @return the number of organisms recovered.
+     * @throws IOException if the snapshot or journal can't be read, then nothing changes.
+     */
+    public int openJournal(String directory) throws IOException {
+        return openJournal(directory, OrganismJournal.DEFAULT_COMMIT_MILLIS, OrganismJournal.DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Recovers the organisms from a journal directory, with a chosen group commit interval and compaction size.
+     *
+     * @param directory where the snapshot and journal are kept, created if needed.
+     * @param commitMillis how often logged changes are forced to the disk.
+     * @param compactBytes the journal size after which it is compacted into a new snapshot.
+     * @return the number of organisms recovered.
+     * @throws IOException if the snapshot or journal can't be read, then nothing changes.
+     */
+    public int openJournal(String directory, long commitMillis, long compactBytes) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("A journal is already open");
+        }
+        OrganismJournal opened = new OrganismJournal(Paths.get(directory), commitMillis, compactBytes);
+        try {
+            Path snapshotFile = opened.getSnapshotFile();
+            List<Organism> loaded = snapshotFile.toFile().exists() ? OrganismSnapshot.read(snapshotFile) : List.of();
+            LinkedHashMap<String, Organism> recovered = new LinkedHashMap<>(loaded.size() * 4 / 3 + 1);
+            for (Organism organism : loaded) {
+                recovered.put(organism.getId(), organism);
+            }
+            opened.replay(recovered);
+            organisms = recovered;
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        cladeTotals.clear();
+        textIndex = null;
+        for (Organism organism : organisms.values()) {
+            addToIndexes(organism);
+        }
+        journal = opened;
+        logger.info("Recovered {} organisms from journal directory {}", organisms.size(), directory);
+        return organisms.size();
+    }
+
+    /**
+     * Compacts the journal into a snapshot and closes it, for a fast start next time. Does nothing if no
+     * journal is open.
+     *
+     * @throws IOException if the snapshot can't be written, the journal is still closed and replays next time.
+     */
+    public void closeJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        OrganismJournal closing = journal;
+        journal = null;
+        try {
+            closing.compact(organisms.values());
+        } finally {
+            closing.close();
+        }
+    }
+
+    /**
+     * Forces every change logged so far to the disk, without waiting for the next group commit.
+     *
+     * @throws IOException if the force fails.
+     */
+    public void syncJournal() throws IOException {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    private void logPut(Organism organism) {
+        if (journal != null) {
+            journal.logPut(organism);
+            if (bulkChanges == 0) {
+                compactIfNeeded();
             }
-            return divisor == 0 ? 0 : sumOfClade/divisor;
+        }
+    }
 
+    private void logRemove(String id) {
+        if (journal != null) {
+            journal.logRemove(id);
+            if (bulkChanges == 0) {
+                compactIfNeeded();
+            }
+        }
+    }
+
+    /**
+     * Starts a change to many organisms, like a file load. Until the matching endBulkChange the journal keeps
+     * growing instead of being compacted, since each compaction writes every organism.
+     */
+    private void beginBulkChange() {
+        bulkChanges++;
+    }
+
+    /**
+     * Ends a change started with beginBulkChange and compacts the journal if it grew past its limit.
+     */
+    private void endBulkChange() {
+        bulkChanges--;
+        if (bulkChanges == 0 && journal != null) {
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Compacts the journal once it has grown past its limit. A failed compaction leaves the journal as it was,
+     * so it is only logged and tried again after the next change.
+     */
+    private void compactIfNeeded() {
+        if (!journal.needsCompaction()) {
+            return;
+        }
+        try {
+            journal.compact(organisms.values());
+        } catch (IOException | RuntimeException e) {
+            //the change is already in memory and in the journal, so it mustn't fail because of this
+            logger.error("Journal compaction failed", e);
+        }
     }
 
     /**
      * Loads organisms from a text file and adds them to the collection.
      *
      * The file must contain entries in the format: id-cladeName-genusSpecies-lifespanEstimate-lifespanUnit-features-averageLength-lengthUnit.
+     * Files ending in .json or .jsonl are read as JSON instead, see OrganismJsonParser, with the same checks.
      *
-     * Each line is validated for:correct number of fields, valid 5-digit ID, non-duplicate ID, and positive numeric lifespan and length.
+     * Each line is validated by the OrganismParser for: correct number of fields, valid 5-digit ID, positive numeric
+     * lifespan and length, and a length unit of mm, cm, or m. Duplicate IDs are checked here.
+     * Loading stops at the first bad line; organisms from the lines before it stay added.
      *
      * @param filePath the path to the file to load.
      * @return a message with the result or the error that occurred.
@@ -268,85 +729,108 @@ public class OrganismManager {
 
             logger.info("File load started: {}", filePath);
 
-            try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-                String line;
-                int lineNum = 0;
+            beginBulkChange();
+            try (OrganismSource parser = OrganismSource.open(Paths.get(filePath))) {
+                int added = 0;
 
                 //while loop that reads until there is nothing to input
-                while ((line = br.readLine()) != null) {
-                    lineNum++;
-                    line = line.trim();
-                    if (line.isEmpty()) {
-                        logger.debug("Skipped empty line {}", lineNum);
-                        continue;
-                    }
-
-                    //split used here to separate the individual parts of each line by the dash
-                    // id-cladeName-genusSpecies-lifespanEstimate-lifespanUnit-definiteFeatures-averageLength-lengthUnit
-                    String[] parts = line.split("-", 8);
-                    if (parts.length != 8) {
-                        logger.error("Line {} invalid format", lineNum);
-                        return "Line "+ lineNum+ ": is not in correct format.";
-                    }
-
-                    String id = parts[0].trim();
-                    String cladeName = parts[1].trim();
-                    String genusSpecies = parts[2].trim();
-                    String lifespanEstimateStr = parts[3].trim();
-                    String lifespanUnit = parts[4].trim();
-                    String definiteFeatures = parts[5].trim();
-                    String averageLengthStr = parts[6].trim();
-                    String lengthUnit = parts[7].trim();
-
-
-                    // Check to see if ID is 5 characters and is all in digits
-                    boolean validId = id.length() == 5;
-                    for (int i = 0; i < id.length() && validId; i++) {
-                        if (!Character.isDigit(id.charAt(i))) {
-                            validId = false;
-                        }
-                    }
-                    if (!validId) {
-                        return "Line " + lineNum + ": id should be 5 digits.";
+                while (parser.next()) {
+                    long lineNum = parser.getLineNumber();
+                    if (parser.getError() != null) {
+                        logger.error("Line {} invalid: {}", lineNum, parser.getError().getMessage());
+                        return parser.getError().toString();
                     }
 
+                    Organism o = parser.getOrganism();
                     //Checks id for duplicates
-                    if (idDuplicate(id)) {
+                    if (idDuplicate(o.getId())) {
                         logger.warn("Duplicate ID found at line {}", lineNum);
                         return "Line "+ lineNum+ ": has a duplicate ID.";
                     }
 
-                    // Ensure numeric fields are numeric
-                    double lifespanEstimate;
-                    double averageLength;
+                    logger.debug("Processing organism ID {} from line {}", o.getId(), lineNum);
+                    // Add the organism after validation
+                    organisms.put(o.getId(), o);
+                    addToIndexes(o);
+                    logPut(o);
+                    added++;
+                }
+                logger.info("File load completed. Total lines: {}", parser.getLineNumber());
+                return "File uploaded correctly. "+ added + " organisms were successfully added.";
 
-                    try {
-                        lifespanEstimate = Integer.parseInt(lifespanEstimateStr);
-                        averageLength = Double.parseDouble(averageLengthStr);
-                    } catch (NumberFormatException e) {
-                        return "Line " + lineNum + ": needs a numbered lifespan or average length.";
-                    }
+            } catch (IOException e) {
+                logger.error("File read failure: {}", filePath, e);
+                return "Error reading file: " + e.getMessage();
+            } finally {
+                endBulkChange();
+            }
+        }
 
-                    if (lifespanEstimate <= 0) {
-                        return "Line " + lineNum + ": lifespan needs to be be positive.";
+    /**
+     * Loads organisms from a large text file using every core.
+     *
+     * The file is memory mapped and split into chunks on line boundaries which are parsed in parallel on the
+     * common fork-join pool. The chunks are merged back in file order, so the result, the duplicate ID check and the
+     * line numbers in error messages are the same as for loadFile.
+     * JSON and gzipped files can't be split on line boundaries, so they are read by loadFile instead,
+     * as are CSV files, which loadFile refuses.
+     *
+     * @param filePath the path to the file to load.
+     * @return a message with the result or the error that occurred.
+     */
+        public String loadFileParallel(String filePath) {
+
+            ExportFormat format = ExportFormat.fromFileName(filePath);
+            if (ExportFormat.isGzip(filePath) || format == ExportFormat.JSON_LINES || format == ExportFormat.CSV) {
+                return loadFile(filePath);
+            }
+
+            logger.info("Parallel file load started: {}", filePath);
+
+            beginBulkChange();
+            try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+                List<ForkJoinTask<ParallelFileLoader.Chunk>> tasks =
+                        ParallelFileLoader.submit(channel, ForkJoinPool.commonPool());
+                int added = 0;
+                long lineOffset = 0;
+
+                try {
+                    //merge the chunks in the order they appear in the file
+                    for (ForkJoinTask<ParallelFileLoader.Chunk> task : tasks) {
+                        ParallelFileLoader.Chunk chunk = task.join();
+                        for (int i = 0; i < chunk.organisms.size(); i++) {
+                            Organism o = chunk.organisms.get(i);
+                            if (idDuplicate(o.getId())) {
+                                long lineNum = lineOffset + chunk.lines[i];
+                                logger.warn("Duplicate ID found at line {}", lineNum);
+                                return "Line "+ lineNum+ ": has a duplicate ID.";
+                            }
+                            organisms.put(o.getId(), o);
+                            addToIndexes(o);
+                            logPut(o);
+                            added++;
+                        }
+                        if (chunk.error != null) {
+                            long lineNum = lineOffset + chunk.error.getLine();
+                            logger.error("Line {} invalid: {}", lineNum, chunk.error.getMessage());
+                            return new OrganismParser.ParseError(lineNum, chunk.error.getType()).toString();
+                        }
+                        lineOffset += chunk.newlines;
                     }
-                    if (averageLength <= 0) {
-                        return "Line " + lineNum + ": average length should be positive.";
+                } finally {
+                    //stops any chunks still parsing if we returned early
+                    for (ForkJoinTask<ParallelFileLoader.Chunk> task : tasks) {
+                        task.cancel(true);
                     }
-
-                    logger.debug("Processing organism ID {} from line {}", id, lineNum);
-                    // Add the organism after validation
-                    Organism o = new Organism(id, cladeName, genusSpecies, (int) lifespanEstimate,
-                            lifespanUnit, definiteFeatures, (float) averageLength, lengthUnit);
-                    organisms.add(o);
-                    logger.info("Added organism from file: {}", id);
                 }
-                logger.info("File load completed. Total lines: {}", lineNum);
-                return "File uploaded correctly. "+ lineNum + " organisms were successfully added.";
+                logger.info("Parallel file load completed. Chunks: {}", tasks.size());
+                return "File uploaded correctly. "+ added + " organisms were successfully added.";
 
-            } catch (IOException e) {
+            } catch (IOException | RuntimeException e) {
                 logger.error("File read failure: {}", filePath, e);
                 return "Error reading file: " + e.getMessage();
+            } finally {
+                endBulkChange();
             }
         }
 }
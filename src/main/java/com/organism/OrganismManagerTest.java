@@ -56,6 +56,23 @@ class OrganismManagerTest {
     }
 
 
+    @org.junit.jupiter.api.Test
+    @DisplayName("id lookups keep insertion order")
+    void idIndexKeepsInsertionOrder() {
+        manage.addOrganism(organism);
+        manage.addOrganism(new Organism("00015", "Lycophyta","Selaginella",
+                5, "years", "scalelike leaves, strobili", 8.0F,"cm"));
+        manage.addOrganism(new Organism("00030", "Bryophyta","Sphagnum",
+                2, "years", "peat forming", 10.0F,"cm"));
+        manage.removeOrganism("00015");
+
+        assertTrue(manage.idDuplicate("00030"));
+        assertFalse(manage.idDuplicate("00015"));
+        assertEquals("Sphagnum", manage.getOrganism("00030").getGenusSpecies());
+        assertEquals("00021", manage.getOrganisms().get(0).getId());
+        assertEquals("00030", manage.getOrganisms().get(1).getId());
+    }
+
     @org.junit.jupiter.api.Test
     void updateOrganism() {
         manage.addOrganism(organism);
@@ -89,6 +106,22 @@ class OrganismManagerTest {
         assertEquals(2529.00, manage.getCustomMethodAverage("Lycophyta"));
     }
 
+    @org.junit.jupiter.api.Test
+    @DisplayName("clade averages follow adds, updates and removes")
+    void cladeAverageIsMaintained() {
+        manage.addOrganism(organism);
+        manage.addOrganism(new Organism("00015", "Lycophyta","Selaginella",
+                5, "years", "scalelike leaves, strobili", 80F,"mm"));
+        assertEquals(2529.00, manage.getAvg("Lycophyta"), 0.01);
+
+        manage.updateOrganism("00021", "clade", "Lepidodendrales");
+        assertEquals(8.00, manage.getAvg("Lycophyta"), 0.01);
+        assertEquals(5050.00, manage.getCustomMethodAverage("Lepidodendrales"), 0.01);
+
+        manage.removeOrganism("00015");
+        assertEquals(0, manage.getAvg("Lycophyta"));
+    }
+
     @org.junit.jupiter.api.Test
     void loadFile() {
         manage.loadFile("C:\\Users\\danie\\Downloads\\organismsheet.txt");
@@ -0,0 +1,412 @@
+package com.organism;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser for the dash delimited organism format used by text file imports:
+ * id-cladeName-genusSpecies-lifespanEstimate-lifespanUnit-definitiveFeatures-averageLength-lengthUnit
+ *
+ * Both OrganismManager.loadFile and the GUI upload read text files through this class, so they accept exactly the same lines.
+ * Lines are scanned in place inside one reusable char buffer, so memory use depends on the longest line and not on
+ * the size of the file. The first seven dashes split the fields and every field is trimmed.
+ * Blank lines are skipped.
+ *
+ * Use it by calling next() until it returns false. After each call either getOrganism() or getError() is set.
+ */
+public class OrganismParser implements OrganismSource {
+
+    /**
+     * The kinds of problems a line can have.
+     */
+    public enum ErrorType {
+        FORMAT("is not in correct format."),
+        ID("id should be 5 digits."),
+        NUMBER("needs a numbered lifespan or average length."),
+        LIFESPAN("lifespan needs to be positive."),
+        LENGTH("average length should be positive."),
+        LENGTH_UNIT("length unit must be mm, cm, or m.");
+
+        private final String message;
+
+        ErrorType(String message) {
+            this.message = message;
+        }
+
+        /**
+         * @return the message shown to the user for this kind of error.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * A line that couldn't be turned into an organism.
+     */
+    public static class ParseError {
+        private final long line;
+        private final ErrorType type;
+
+        /**
+         * @param line the line number, starting at 1.
+         * @param type what was wrong with the line.
+         */
+        public ParseError(long line, ErrorType type) {
+            this.line = line;
+            this.type = type;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public ErrorType getType() {
+            return type;
+        }
+
+        public String getMessage() {
+            return type.getMessage();
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + type.getMessage();
+        }
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int FIELD_COUNT = 8;
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15};
+
+    private final Reader reader;
+    private char[] buf;
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private long lineNumber;
+
+    //start and end of every field in the current line, reused for each line
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    private final CategoryDictionary categories = new CategoryDictionary();
+
+    private Organism organism;
+    private ParseError error;
+
+    /**
+     * Creates a parser that reads from a Reader.
+     *
+     * @param reader the source of the text, closed when the parser is closed.
+     */
+    public OrganismParser(Reader reader) {
+        this.reader = reader;
+        this.buf = new char[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Creates a parser that reads UTF-8 text from an InputStream.
+     *
+     * @param in the source of the text, closed when the parser is closed.
+     */
+    public OrganismParser(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a parser over text that is already in memory. The array is used directly, no copy is made.
+     *
+     * @param text the characters to parse.
+     * @param start index of the first character.
+     * @param end index after the last character.
+     */
+    public OrganismParser(char[] text, int start, int end) {
+        this.reader = null;
+        this.buf = text;
+        this.pos = start;
+        this.limit = end;
+        this.eof = true;
+    }
+
+    /**
+     * Moves to the next non-blank line and parses it.
+     *
+     * @return true if a line was parsed, false at the end of the input.
+     * @throws IOException if the reader fails.
+     */
+    public boolean next() throws IOException {
+        organism = null;
+        error = null;
+        int scan = pos;
+        while (true) {
+            //look for the end of the current line in what has been read so far
+            int newline = -1;
+            for (int i = scan; i < limit; i++) {
+                if (buf[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+
+            int lineStart = pos;
+            int lineEnd;
+            if (newline >= 0) {
+                lineEnd = newline;
+                pos = newline + 1;
+            } else if (eof) {
+                if (pos >= limit) {
+                    return false;
+                }
+                //last line without a newline at the end
+                lineEnd = limit;
+                pos = limit;
+            } else {
+                scan = limit - pos;
+                fill();
+                continue;
+            }
+
+            lineNumber++;
+            if (parseLine(lineStart, lineEnd)) {
+                return true;
+            }
+            scan = pos; //blank line, keep going
+        }
+    }
+
+    /**
+     * @return the organism from the last line, or null if the line had an error.
+     */
+    public Organism getOrganism() {
+        return organism;
+    }
+
+    /**
+     * @return the error from the last line, or null if it parsed into an organism.
+     */
+    public ParseError getError() {
+        return error;
+    }
+
+    /**
+     * @return the line number of the last line read, starting at 1 and counting blank lines.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    /**
+     * Moves the unread part of the buffer to the front and reads more text after it.
+     * The buffer only grows when a single line doesn't fit in it.
+     *
+     * @throws IOException if the reader fails.
+     */
+    private void fill() throws IOException {
+        int remaining = limit - pos;
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        } else if (remaining == buf.length) {
+            char[] bigger = new char[buf.length * 2];
+            System.arraycopy(buf, 0, bigger, 0, remaining);
+            buf = bigger;
+        }
+        pos = 0;
+        limit = remaining;
+        int read = reader.read(buf, limit, buf.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * Splits one line into fields and validates it, setting either organism or error.
+     *
+     * @param start index of the first character of the line.
+     * @param end index after the last character of the line.
+     * @return false if the line was blank and should be skipped.
+     */
+    private boolean parseLine(int start, int end) {
+        start = skipLeadingSpace(start, end);
+        end = skipTrailingSpace(start, end);
+        if (start == end) {
+            return false;
+        }
+
+        //the first seven dashes separate the fields, anything after them belongs to the length unit
+        int field = 0;
+        fieldStart[0] = start;
+        for (int i = start; i < end && field < FIELD_COUNT - 1; i++) {
+            if (buf[i] == '-') {
+                fieldEnd[field] = i;
+                field++;
+                fieldStart[field] = i + 1;
+            }
+        }
+        if (field != FIELD_COUNT - 1) {
+            error = new ParseError(lineNumber, ErrorType.FORMAT);
+            return true;
+        }
+        fieldEnd[FIELD_COUNT - 1] = end;
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            fieldStart[f] = skipLeadingSpace(fieldStart[f], fieldEnd[f]);
+            fieldEnd[f] = skipTrailingSpace(fieldStart[f], fieldEnd[f]);
+        }
+
+        // Check to see if ID is 5 characters and is all in digits
+        if (fieldEnd[0] - fieldStart[0] != 5) {
+            error = new ParseError(lineNumber, ErrorType.ID);
+            return true;
+        }
+        for (int i = fieldStart[0]; i < fieldEnd[0]; i++) {
+            if (buf[i] < '0' || buf[i] > '9') {
+                error = new ParseError(lineNumber, ErrorType.ID);
+                return true;
+            }
+        }
+
+        // Ensure numeric fields are numeric
+        long lifespan = parseInt(fieldStart[3], fieldEnd[3]);
+        float averageLength = parseFloat(fieldStart[6], fieldEnd[6]);
+        if (lifespan == Long.MIN_VALUE || Float.isNaN(averageLength)) {
+            error = new ParseError(lineNumber, ErrorType.NUMBER);
+            return true;
+        }
+        if (lifespan <= 0) {
+            error = new ParseError(lineNumber, ErrorType.LIFESPAN);
+            return true;
+        }
+        if (averageLength <= 0) {
+            error = new ParseError(lineNumber, ErrorType.LENGTH);
+            return true;
+        }
+
+        String lengthUnit = category(7);
+        if (!OrganismValidator.isValidLengthUnit(lengthUnit)) {
+            error = new ParseError(lineNumber, ErrorType.LENGTH_UNIT);
+            return true;
+        }
+
+        organism = new Organism(field(0), category(1), field(2), (int) lifespan, category(4), field(5),
+                averageLength, lengthUnit);
+        return true;
+    }
+
+    /**
+     * @param f the field index.
+     * @return the field as a String.
+     */
+    private String field(int f) {
+        return new String(buf, fieldStart[f], fieldEnd[f] - fieldStart[f]);
+    }
+
+    /**
+     * @param f the index of a categorical field: clade, lifespan unit or length unit.
+     * @return the shared String for the field's value, made only if the value hasn't been seen before.
+     */
+    private String category(int f) {
+        return categories.canonical(buf, fieldStart[f], fieldEnd[f]);
+    }
+
+    private int skipLeadingSpace(int start, int end) {
+        while (start < end && buf[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int skipTrailingSpace(int start, int end) {
+        while (end > start && buf[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Parses an int straight from the buffer.
+     *
+     * @return the value, or Long.MIN_VALUE if the text is not an int.
+     */
+    private long parseInt(int start, int end) {
+        if (start == end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        if (buf[start] == '-' || buf[start] == '+') {
+            negative = buf[start] == '-';
+            start++;
+            if (start == end) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return Long.MIN_VALUE;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a float straight from the buffer. Plain decimals like 12.5 are handled here,
+     * anything else (exponents, very long numbers) falls back to Float.parseFloat.
+     *
+     * @return the value, or NaN if the text is not a number.
+     */
+    private float parseFloat(int start, int end) {
+        if (start == end) {
+            return Float.NaN;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDot = false;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenDot) {
+                    scale++;
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                digits = -1;
+                break;
+            }
+        }
+        if (digits > 0 && digits <= 15) {
+            return (float) (mantissa / POWERS_OF_TEN[scale]);
+        }
+        try {
+            return Float.parseFloat(new String(buf, start, end - start));
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+}
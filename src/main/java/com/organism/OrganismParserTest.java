@@ -0,0 +1,81 @@
+package com.organism;
+
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismParserTest {
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("parses a line into an organism")
+    void parseLine() throws IOException {
+        OrganismParser parser = new OrganismParser(new StringReader(
+                " 00021 - Lycophyta -Lepidodendron-15-years-extinct, prehistoric-50.5-m \r\n"));
+        assertTrue(parser.next());
+        Organism organism = parser.getOrganism();
+        assertEquals("00021", organism.getId());
+        assertEquals("Lycophyta", organism.getCladeName());
+        assertEquals(15, organism.getLifespanEstimate());
+        assertEquals("extinct, prehistoric", organism.getDefinitiveFeatures());
+        assertEquals(50.5F, organism.getAverageLength());
+        assertEquals("m", organism.getLengthUnit());
+        assertFalse(parser.next());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("reports typed errors with line numbers")
+    void parseErrors() throws IOException {
+        OrganismParser parser = new OrganismParser(new StringReader(
+                "00021-Lycophyta-Lepidodendron-15-years\n\n"
+                        + "0001-Lycophyta-Selaginella-5-years-strobili-8-cm\n"
+                        + "00015-Lycophyta-Selaginella-five-years-strobili-8-cm\n"
+                        + "00015-Lycophyta-Selaginella-5-years-strobili-8-in"));
+        assertTrue(parser.next());
+        assertEquals(OrganismParser.ErrorType.FORMAT, parser.getError().getType());
+        assertEquals(1, parser.getError().getLine());
+        assertTrue(parser.next());
+        assertEquals(OrganismParser.ErrorType.ID, parser.getError().getType());
+        assertEquals(3, parser.getError().getLine());
+        assertTrue(parser.next());
+        assertEquals(OrganismParser.ErrorType.NUMBER, parser.getError().getType());
+        assertTrue(parser.next());
+        assertEquals(OrganismParser.ErrorType.LENGTH_UNIT, parser.getError().getType());
+        assertEquals(5, parser.getError().getLine());
+        assertFalse(parser.next());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("handles lines longer than the buffer")
+    void parseLongLine() throws IOException {
+        String features = "x".repeat(200_000);
+        OrganismParser parser = new OrganismParser(new StringReader(
+                "00021-Lycophyta-Lepidodendron-15-years-" + features + "-50.5-m\n"
+                        + "00015-Lycophyta-Selaginella-5-years-strobili-8-cm\n"));
+        assertTrue(parser.next());
+        assertEquals(features, parser.getOrganism().getDefinitiveFeatures());
+        assertTrue(parser.next());
+        assertEquals("00015", parser.getOrganism().getId());
+        assertFalse(parser.next());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("reads text files as UTF-8 whatever the platform charset is")
+    void openReadsUtf8() throws IOException {
+        Path file = Files.createTempFile("organisms", ".txt");
+        try {
+            Files.write(file, "00021-Reptilia-Crocodylus niloticus-70-years-écailles, œufs-4.5-m\n".getBytes(StandardCharsets.UTF_8));
+            try (OrganismSource source = OrganismSource.open(file)) {
+                assertTrue(source.next());
+                assertEquals("écailles, œufs", source.getOrganism().getDefinitiveFeatures());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.organism;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A set of new attribute values for one organism, used by the batch update methods.
+ *
+ * Values are kept as text and checked when the patch is applied, so a bad value fails only its own patch.
+ */
+public class OrganismPatch {
+    private final String id;
+    private final Map<OrganismField, String> values = new EnumMap<>(OrganismField.class);
+
+    /**
+     * @param id the ID of the organism to change.
+     */
+    public OrganismPatch(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Sets a new value for a field. Setting the same field again replaces the value.
+     *
+     * @param field the field to change.
+     * @param value the new value as text.
+     * @return this patch, so calls can be chained.
+     */
+    public OrganismPatch set(OrganismField field, String value) {
+        values.put(field, value);
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the fields and new values, in field order.
+     */
+    public Map<OrganismField, String> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Checks every value and converts it to its stored type.
+     *
+     * @return the converted values in field order.
+     * @throws IllegalArgumentException with a message for the user if the patch is empty or a value isn't allowed.
+     */
+    Map<OrganismField, Object> parse() {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update.");
+        }
+        Map<OrganismField, Object> parsed = new EnumMap<>(OrganismField.class);
+        for (Map.Entry<OrganismField, String> entry : values.entrySet()) {
+            parsed.put(entry.getKey(), entry.getKey().parse(entry.getValue()));
+        }
+        return parsed;
+    }
+
+    @Override
+    public String toString() {
+        return "OrganismPatch{id=" + id + ", values=" + values + '}';
+    }
+}
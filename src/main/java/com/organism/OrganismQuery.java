@@ -0,0 +1,233 @@
+package com.organism;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A query over organisms: an optional filter, sort keys, and a limit and offset.
+ *
+ * The same query runs on OrganismManager, ColumnarOrganismStore and DatabaseHelper and gives the same organisms
+ * in the same order. Organisms that tie on every sort key are ordered by ID, so pages never overlap.
+ * When there is a limit, the in-memory stores keep only the best offset + limit organisms in a bounded heap
+ * while scanning, instead of sorting every match.
+ *
+ * Example, the 10 longest mammals: {@code OrganismQuery.top(QueryField.LENGTH_CM, 10).where(OrganismFilter.cladeEquals("Mammalia"))}
+ */
+public class OrganismQuery {
+
+    /**
+     * One sort key.
+     */
+    private static final class SortKey {
+        final QueryField field;
+        final boolean descending;
+
+        SortKey(QueryField field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+    }
+
+    private OrganismFilter filter;
+    private final List<SortKey> sortKeys = new ArrayList<>();
+    private int limit = -1;
+    private int offset;
+
+    /**
+     * Makes a query for the k organisms with the highest value of a field, highest first.
+     *
+     * @param field the field to rank by, like LENGTH_CM or LIFESPAN.
+     * @param k how many organisms to return.
+     * @return the query, more filters and sort keys can still be added.
+     */
+    public static OrganismQuery top(QueryField field, int k) {
+        return new OrganismQuery().orderByDescending(field).limit(k);
+    }
+
+    /**
+     * Adds a filter. Calling it again keeps only organisms that match every filter.
+     *
+     * @param filter the filter to add.
+     * @return this query.
+     */
+    public OrganismQuery where(OrganismFilter filter) {
+        this.filter = this.filter == null ? filter : this.filter.and(filter);
+        return this;
+    }
+
+    /**
+     * Adds a sort key, lowest value first. Keys added earlier sort first.
+     *
+     * @param field the field to sort by.
+     * @return this query.
+     */
+    public OrganismQuery orderBy(QueryField field) {
+        sortKeys.add(new SortKey(field, false));
+        return this;
+    }
+
+    /**
+     * Adds a sort key, highest value first. Keys added earlier sort first.
+     *
+     * @param field the field to sort by.
+     * @return this query.
+     */
+    public OrganismQuery orderByDescending(QueryField field) {
+        sortKeys.add(new SortKey(field, true));
+        return this;
+    }
+
+    /**
+     * @param limit the most organisms to return.
+     * @return this query.
+     */
+    public OrganismQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param offset how many of the sorted matches to skip.
+     * @return this query.
+     */
+    public OrganismQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset can't be negative: " + offset);
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * @return the filter, or null if every organism matches.
+     */
+    public OrganismFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Runs the query over organisms in memory.
+     *
+     * @param organisms the organisms to search.
+     * @return the matches, sorted, after the offset and up to the limit.
+     */
+    public List<Organism> run(Iterable<Organism> organisms) {
+        Selector selector = selector();
+        for (Organism organism : organisms) {
+            if (filter == null || filter.test(organism)) {
+                selector.offer(organism);
+            }
+        }
+        return selector.result();
+    }
+
+    /**
+     * @return a Selector to hand matches to one at a time, for stores that do the filtering themselves.
+     */
+    Selector selector() {
+        return new Selector(comparator(), limit < 0 ? -1 : (int) Math.min((long) offset + limit, Integer.MAX_VALUE), offset, limit);
+    }
+
+    /**
+     * Collects matching organisms and gives back the sorted page. With a limit, only the best
+     * offset + limit are kept, in a heap whose top is the worst of them.
+     */
+    static final class Selector {
+        private final Comparator<Organism> comparator;
+        private final int keep;
+        private final int offset;
+        private final int limit;
+        private final List<Organism> all;
+        private final PriorityQueue<Organism> best;
+
+        private Selector(Comparator<Organism> comparator, int keep, int offset, int limit) {
+            this.comparator = comparator;
+            this.keep = keep;
+            this.offset = offset;
+            this.limit = limit;
+            this.all = keep < 0 ? new ArrayList<>() : null;
+            this.best = keep < 0 ? null : new PriorityQueue<>(Math.min(keep, 1024) + 1, comparator.reversed());
+        }
+
+        /**
+         * @param organism an organism that matches the filter.
+         */
+        void offer(Organism organism) {
+            if (best == null) {
+                all.add(organism);
+            } else if (best.size() < keep) {
+                best.add(organism);
+            } else if (keep > 0 && comparator.compare(organism, best.peek()) < 0) {
+                best.poll();
+                best.add(organism);
+            }
+        }
+
+        /**
+         * @return the organisms offered, sorted, after the offset and up to the limit.
+         */
+        List<Organism> result() {
+            List<Organism> sorted = best == null ? all : new ArrayList<>(best);
+            sorted.sort(comparator);
+            int from = Math.min(offset, sorted.size());
+            int to = limit < 0 ? sorted.size() : (int) Math.min((long) from + limit, sorted.size());
+            return new ArrayList<>(sorted.subList(from, to));
+        }
+    }
+
+    /**
+     * @return the order of the results: the sort keys, then the ID.
+     */
+    Comparator<Organism> comparator() {
+        Comparator<Organism> comparator = null;
+        for (SortKey key : sortKeys) {
+            Comparator<Organism> next = key.field.isNumeric()
+                    ? Comparator.comparingDouble(key.field::number)
+                    //SQLite sorts NULL before any text
+                    : Comparator.comparing(key.field::text, Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (key.descending) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Organism> byId = Comparator.comparing(Organism::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    /**
+     * @return the SELECT for this query on the Organisms table, with the filter's parameters, then
+     * the limit and offset.
+     */
+    String toSql() {
+        StringBuilder sql = new StringBuilder("SELECT * FROM Organisms");
+        if (filter != null) {
+            sql.append(" WHERE ").append(filter.getSql());
+        }
+        sql.append(" ORDER BY ");
+        for (SortKey key : sortKeys) {
+            sql.append(key.field.getColumn()).append(key.descending ? " DESC, " : ", ");
+        }
+        sql.append("organism_id LIMIT ? OFFSET ?");
+        return sql.toString();
+    }
+
+    /**
+     * Sets the parameters of toSql on a statement.
+     *
+     * @param ps the statement prepared from toSql.
+     * @throws SQLException if a parameter can't be set.
+     */
+    void bind(PreparedStatement ps) throws SQLException {
+        int index = filter == null ? 1 : filter.bind(ps, 1);
+        //LIMIT -1 is no limit in SQLite
+        ps.setInt(index++, limit);
+        ps.setInt(index, offset);
+    }
+}
@@ -0,0 +1,81 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismQueryTest {
+
+    static final String[] CLADES = {"Aves", "Mammalia", "Reptilia"};
+    static final String[] UNITS = {"mm", "cm", "m"};
+    static final String[] FEATURES = {"extinct, prehistoric", "fur", "Feathers", "scales, venom", "Écailles, œufs"};
+
+    static List<Organism> organisms() {
+        Random random = new Random(7);
+        List<Organism> list = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            list.add(new Organism(String.format("%05d", i), CLADES[random.nextInt(3)], "Genus " + random.nextInt(50),
+                    1 + random.nextInt(40), "years", FEATURES[random.nextInt(FEATURES.length)], 1 + random.nextInt(200),
+                    UNITS[random.nextInt(3)]));
+        }
+        return list;
+    }
+
+    static List<String> ids(List<Organism> organisms) {
+        List<String> ids = new ArrayList<>();
+        for (Organism organism : organisms) {
+            ids.add(organism.getId());
+        }
+        return ids;
+    }
+
+    @org.junit.jupiter.api.Test
+    void storesAgreeWithDatabase() throws Exception {
+        OrganismManager manager = new OrganismManager();
+        ColumnarOrganismStore store = new ColumnarOrganismStore();
+        for (Organism organism : organisms()) {
+            manager.addOrganism(organism);
+            store.addOrganism(organism);
+        }
+        List<OrganismQuery> queries = List.of(
+                OrganismQuery.top(QueryField.LENGTH_CM, 10),
+                OrganismQuery.top(QueryField.LIFESPAN, 5).where(OrganismFilter.cladeEquals("Aves")),
+                new OrganismQuery().where(OrganismFilter.contains(QueryField.FEATURES, "feath"))
+                        .orderBy(QueryField.CLADE).orderByDescending(QueryField.AVERAGE_LENGTH).limit(20).offset(10),
+                new OrganismQuery().where(OrganismFilter.between(QueryField.LIFESPAN, 10, 20))
+                        .where(OrganismFilter.equalTo(QueryField.LENGTH_UNIT, "m")).orderBy(QueryField.GENUS),
+                new OrganismQuery().where(OrganismFilter.equalTo(QueryField.ID, "00042")),
+                new OrganismQuery().where(OrganismFilter.cladeEquals("Insecta")),
+                //SQLite's lower() only folds A to Z, so É only matches É
+                new OrganismQuery().where(OrganismFilter.contains(QueryField.FEATURES, "ÉCAILLES")),
+                new OrganismQuery().where(OrganismFilter.contains(QueryField.FEATURES, "écailles")));
+
+        Path dbFile = Files.createTempFile("query", ".db");
+        try (DatabaseHelper dbHelper = new DatabaseHelper(dbFile.toString())) {
+            dbHelper.importOrganisms(organisms().iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, false);
+            for (OrganismQuery query : queries) {
+                List<String> expected = ids(dbHelper.query(query));
+                assertEquals(expected, ids(manager.query(query)), query.toSql());
+                assertEquals(expected, ids(store.query(query)), query.toSql());
+            }
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void topKIsHighestFirst() {
+        List<Organism> top = OrganismQuery.top(QueryField.LENGTH_CM, 3).run(organisms());
+        assertEquals(3, top.size());
+        assertTrue(top.get(0).getLengthCentimeters() >= top.get(1).getLengthCentimeters());
+        assertTrue(top.get(1).getLengthCentimeters() >= top.get(2).getLengthCentimeters());
+        for (Organism organism : organisms()) {
+            assertTrue(organism.getLengthCentimeters() <= top.get(0).getLengthCentimeters());
+        }
+        assertThrows(IllegalArgumentException.class, () -> OrganismFilter.contains(QueryField.LIFESPAN, "1"));
+    }
+}
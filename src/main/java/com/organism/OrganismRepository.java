@@ -0,0 +1,359 @@
+package com.organism;
+
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Cache of organisms in front of a DatabaseHelper.
+ *
+ * Single organisms are read from SQLite the first time they are asked for and kept in a size-bounded LRU cache.
+ * Every ID in the database is also kept in a BitSet, loaded with one query the first time it is needed, so
+ * duplicate checks and lookups of IDs that don't exist never go to the database. Adds, updates and deletes are
+ * written to the database first and then to the cache, so the cache never holds something the database doesn't.
+ *
+ * Writes that bypass the repository, like a bulk import, must be followed by invalidate. Safe to use from
+ * several threads; database calls are made outside the lock.
+ */
+public class OrganismRepository {
+    private static final Logger logger = LogManager.getLogger(OrganismRepository.class);
+
+    /** Organisms kept in memory when no size is given. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+    /** The number of possible 5 digit IDs. */
+    private static final int ID_SPACE = 100_000;
+
+    private final DatabaseHelper dbHelper;
+    private final Map<String, Organism> cache;
+
+    //every ID in the database: 5 digit IDs as bits, anything else from older databases in a set
+    private final BitSet ids = new BitSet(ID_SPACE);
+    private final Set<String> otherIds = new HashSet<>();
+    private boolean idsLoaded;
+    //bumped by invalidate, so IDs read before it are thrown away
+    private int generation;
+    //deletes made before the IDs are loaded, so a load that read the row before it was deleted doesn't bring it back
+    private final BitSet deletedIds = new BitSet(ID_SPACE);
+    private final Set<String> deletedOtherIds = new HashSet<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a repository with the default cache size.
+     *
+     * @param dbHelper the database to read and write.
+     */
+    public OrganismRepository(DatabaseHelper dbHelper) {
+        this(dbHelper, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a repository that keeps at most capacity organisms in memory.
+     *
+     * @param dbHelper the database to read and write.
+     * @param capacity the most organisms cached, least recently used ones are dropped first.
+     */
+    public OrganismRepository(DatabaseHelper dbHelper, int capacity) {
+        this.dbHelper = dbHelper;
+        //access ordered LinkedHashMap makes a simple LRU cache
+        this.cache = new LinkedHashMap<>(Math.min(capacity, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Organism> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Reads every ID from the database into memory, if that hasn't happened yet. Called by the methods that need
+     * the IDs, or ahead of time from a background thread so the first duplicate check doesn't wait for it.
+     *
+     * @throws SQLException if the IDs can't be read.
+     */
+    public void loadIds() throws SQLException {
+        int loadGeneration;
+        synchronized (this) {
+            if (idsLoaded) {
+                return;
+            }
+            loadGeneration = generation;
+        }
+        BitSet loaded = new BitSet(ID_SPACE);
+        Set<String> loadedOther = new HashSet<>();
+        dbHelper.forEachOrganismId(id -> {
+            int number = idNumber(id);
+            if (number >= 0) {
+                loaded.set(number);
+            } else {
+                loadedOther.add(id);
+            }
+        });
+        synchronized (this) {
+            if (!idsLoaded && generation == loadGeneration) {
+                //deletes that finished while the IDs loaded may have been read anyway, adds are kept as well
+                loaded.andNot(deletedIds);
+                loadedOther.removeAll(deletedOtherIds);
+                deletedIds.clear();
+                deletedOtherIds.clear();
+                ids.or(loaded);
+                otherIds.addAll(loadedOther);
+                idsLoaded = true;
+                logger.info("Loaded {} organism IDs", ids.cardinality() + otherIds.size());
+            }
+        }
+    }
+
+    /**
+     * Checks if an ID is already used. Answered from memory once the IDs are loaded, until then with a one row
+     * query so the caller never waits for the whole ID list.
+     *
+     * @param id the ID to check.
+     * @return true if an organism with the ID is in the database.
+     * @throws SQLException if the IDs aren't loaded and the query fails.
+     */
+    public boolean idDuplicate(String id) throws SQLException {
+        synchronized (this) {
+            if (idsLoaded) {
+                return hasId(id);
+            }
+        }
+        return dbHelper.organismExists(id);
+    }
+
+    /**
+     * Gets an organism, from the cache if it is there, otherwise from the database.
+     * The organism returned must not be changed, use updateOrganism instead.
+     *
+     * @param id the organism ID.
+     * @return the organism, or null if there is none with that ID.
+     * @throws SQLException if it has to be read and the read fails.
+     */
+    public Organism getOrganism(String id) throws SQLException {
+        loadIds();
+        synchronized (this) {
+            Organism cached = cache.get(id);
+            if (cached != null || !hasId(id)) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        Organism organism = dbHelper.getOrganism(id);
+        if (organism != null) {
+            synchronized (this) {
+                //only cache it if it wasn't deleted while it was being read
+                if (hasId(id)) {
+                    cache.put(id, organism);
+                }
+            }
+        }
+        return organism;
+    }
+
+    /**
+     * Adds an organism to the database, then to the cache.
+     *
+     * @param organism the organism to add.
+     * @return the added organism, or null if the database didn't add it.
+     */
+    public Organism addOrganism(Organism organism) {
+        Organism added = dbHelper.addOrganism(organism.getId(), organism.getCladeName(), organism.getGenusSpecies(),
+                organism.getLifespanEstimate(), organism.getLifespanUnit(), organism.getDefinitiveFeatures(),
+                organism.getAverageLength(), organism.getLengthUnit());
+        if (added != null) {
+            synchronized (this) {
+                addId(added.getId());
+                cache.put(added.getId(), added);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Updates an attribute in the database, then caches the organism as the database returned it.
+     *
+     * @param id the organism ID.
+     * @param column the attribute to update, see DatabaseHelper.updateOrganism.
+     * @param newValue the new value.
+     * @return the updated organism, or null if there is no organism with that ID.
+     * @throws IllegalArgumentException if the column or value isn't valid.
+     * @throws SQLException if the update fails.
+     */
+    public Organism updateOrganism(String id, String column, String newValue) throws SQLException {
+        Organism updated = dbHelper.updateOrganism(id, column, newValue);
+        if (updated != null) {
+            synchronized (this) {
+                cache.put(id, updated);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Updates several organisms in the database in one transaction, see DatabaseHelper.updateOrganisms.
+     * The changed organisms are dropped from the cache and read again the next time they are asked for.
+     *
+     * @param patches the changes to make.
+     * @return one result per patch, in the same order.
+     * @throws SQLException if the update fails, then nothing was written.
+     */
+    public BatchUpdateResult updateOrganisms(List<OrganismPatch> patches) throws SQLException {
+        BatchUpdateResult result = dbHelper.updateOrganisms(patches);
+        synchronized (this) {
+            for (BatchUpdateResult.Outcome outcome : result.getOutcomes()) {
+                if (outcome.getStatus() == BatchUpdateResult.Status.UPDATED) {
+                    cache.remove(outcome.getId());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes an organism from the database, then from the cache.
+     *
+     * @param id the organism ID.
+     * @return the deleted organism, or null if there was none with that ID.
+     * @throws SQLException if the delete fails.
+     */
+    public Organism deleteOrganism(String id) throws SQLException {
+        Organism deleted = dbHelper.deleteOrganism(id);
+        if (deleted != null) {
+            synchronized (this) {
+                cache.remove(id);
+                removeId(id);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes every organism with an ID in the collection from the database in one transaction,
+     * then from the cache.
+     *
+     * @param ids the IDs to delete.
+     * @return the IDs that were deleted.
+     * @throws SQLException if the delete fails, then nothing was deleted.
+     */
+    public List<String> deleteOrganisms(Collection<String> ids) throws SQLException {
+        return forgetDeleted(dbHelper.deleteOrganisms(ids));
+    }
+
+    /**
+     * Deletes every organism that matches a filter from the database, then from the cache.
+     *
+     * @param filter which organisms to delete.
+     * @return the IDs that were deleted.
+     * @throws SQLException if the delete fails, then nothing was deleted.
+     */
+    public List<String> deleteOrganismsWhere(OrganismFilter filter) throws SQLException {
+        return forgetDeleted(dbHelper.deleteOrganismsWhere(filter));
+    }
+
+    private synchronized List<String> forgetDeleted(List<String> deleted) {
+        for (String id : deleted) {
+            cache.remove(id);
+            removeId(id);
+        }
+        return deleted;
+    }
+
+    /**
+     * Forgets everything cached, for after the database was changed some other way. The IDs are loaded again
+     * the next time they are needed.
+     */
+    public synchronized void invalidate() {
+        cache.clear();
+        ids.clear();
+        otherIds.clear();
+        deletedIds.clear();
+        deletedOtherIds.clear();
+        idsLoaded = false;
+        generation++;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the share of reads answered from memory, from 0 to 1.
+     */
+    public synchronized double getHitRate() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    /**
+     * @return the number of organisms in the cache.
+     */
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cached: %d | Hits: %d | Misses: %d | Evictions: %d | Hit rate: %.1f%%",
+                cache.size(), hits, misses, evictions, getHitRate() * 100);
+    }
+
+    private boolean hasId(String id) {
+        int number = idNumber(id);
+        return number >= 0 ? ids.get(number) : otherIds.contains(id);
+    }
+
+    private void addId(String id) {
+        int number = idNumber(id);
+        if (number >= 0) {
+            ids.set(number);
+            deletedIds.clear(number);
+        } else {
+            otherIds.add(id);
+            deletedOtherIds.remove(id);
+        }
+    }
+
+    private void removeId(String id) {
+        int number = idNumber(id);
+        if (number >= 0) {
+            ids.clear(number);
+            if (!idsLoaded) {
+                deletedIds.set(number);
+            }
+        } else {
+            otherIds.remove(id);
+            if (!idsLoaded) {
+                deletedOtherIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * @return the number in a 5 digit ID, or -1 if it isn't one.
+     */
+    private static int idNumber(String id) {
+        return OrganismValidator.isValidId(id) ? Integer.parseInt(id) : -1;
+    }
+}
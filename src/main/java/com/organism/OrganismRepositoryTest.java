@@ -0,0 +1,87 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismRepositoryTest {
+
+    Path dbFile;
+    DatabaseHelper dbHelper;
+    OrganismRepository repository;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("repository", ".db");
+        dbHelper = new DatabaseHelper(dbFile.toString());
+        dbHelper.addOrganism("00001", "Aves", "Aquila chrysaetos", 30, "years", "wings", 80, "cm");
+        repository = new OrganismRepository(dbHelper, 2);
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() throws Exception {
+        dbHelper.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @org.junit.jupiter.api.Test
+    void readsThroughThenHits() throws Exception {
+        assertTrue(repository.idDuplicate("00001"));
+        assertEquals("Aquila chrysaetos", repository.getOrganism("00001").getGenusSpecies());
+        assertNotNull(repository.getOrganism("00001"));
+        //unknown IDs are answered from the ID set without a query
+        assertNull(repository.getOrganism("00002"));
+
+        assertEquals(1, repository.getMisses());
+        assertEquals(2, repository.getHits());
+    }
+
+    @org.junit.jupiter.api.Test
+    void writesGoThroughToDatabase() throws Exception {
+        Organism wolf = new Organism("00002", "Mammalia", "Canis lupus", 12, "years", "fur", 1.3F, "m");
+        assertNotNull(repository.addOrganism(wolf));
+        assertTrue(repository.idDuplicate("00002"));
+        assertNull(repository.addOrganism(wolf));
+
+        assertEquals(2F, repository.updateOrganism("00002", "average length", "2").getAverageLength());
+        assertEquals(2F, repository.getOrganism("00002").getAverageLength());
+        assertEquals(2F, dbHelper.getOrganism("00002").getAverageLength());
+
+        assertNotNull(repository.deleteOrganism("00002"));
+        assertFalse(repository.idDuplicate("00002"));
+        assertNull(dbHelper.getOrganism("00002"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        repository.addOrganism(new Organism("00002", "Mammalia", "Canis lupus", 12, "years", "fur", 1.3F, "m"));
+        repository.addOrganism(new Organism("00003", "Mammalia", "Ursus arctos", 25, "years", "fur", 2F, "m"));
+        repository.getOrganism("00001");
+
+        assertEquals(2, repository.getCachedCount());
+        assertEquals(1, repository.getEvictions());
+    }
+
+    @org.junit.jupiter.api.Test
+    void deleteDuringIdLoadStaysDeleted() throws Exception {
+        OrganismRepository[] racing = new OrganismRepository[1];
+        try (DatabaseHelper racingHelper = new DatabaseHelper(dbFile.toString()) {
+            @Override
+            public void forEachOrganismId(Consumer<String> action) throws SQLException {
+                super.forEachOrganismId(action);
+                //a delete that finishes after its ID was read
+                racing[0].deleteOrganism("00001");
+            }
+        }) {
+            racing[0] = new OrganismRepository(racingHelper);
+            //not loaded yet, so answered with a one row query
+            assertTrue(racing[0].idDuplicate("00001"));
+            racing[0].loadIds();
+            assertFalse(racing[0].idDuplicate("00001"));
+            assertNull(racing[0].getOrganism("00001"));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Binary snapshot files of a set of organisms, for starting up without reading a text file again.
+ *
+ * Layout, all numbers big endian:
+ * <pre>
+ * int    magic "ORGS"
+ * int    format version
+ * int    number of organisms
+ * 3 x    dictionary: int count, then count strings (clades, lifespan units, length units)
+ * per organism: string id, short clade code, string genus, int lifespan, short lifespan unit code,
+ *               string features, float average length, short length unit code
+ * int    CRC32C of every byte before it
+ * </pre>
+ * A string is an int byte length, or -1 for null, followed by that many UTF-8 bytes. Values are stored already
+ * checked, so reading one back is a copy and not a parse. Files are written to a temporary file first and moved
+ * into place, so a crash while saving leaves the old snapshot as it was.
+ */
+public final class OrganismSnapshot {
+    private static final Logger logger = LogManager.getLogger(OrganismSnapshot.class);
+
+    private static final int MAGIC = 0x4F52_4753; //"ORGS"
+    /** The format version written by this code. */
+    public static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private OrganismSnapshot() {
+    }
+
+    /**
+     * Writes organisms to a snapshot file, replacing it if it exists.
+     *
+     * @param file the snapshot file.
+     * @param organisms the organisms, in the order they should be read back.
+     * @throws IOException if the file can't be written, or a clade or unit has more than Short.MAX_VALUE
+     *         distinct values; then the file is left as it was.
+     */
+    public static void write(Path file, Collection<Organism> organisms) throws IOException {
+        Dictionary clades = new Dictionary();
+        Dictionary lifespanUnits = new Dictionary();
+        Dictionary lengthUnits = new Dictionary();
+        for (Organism organism : organisms) {
+            clades.encode(organism.getCladeName());
+            lifespanUnits.encode(organism.getLifespanUnit());
+            lengthUnits.encode(organism.getLengthUnit());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(organisms.size());
+            clades.write(out);
+            lifespanUnits.write(out);
+            lengthUnits.write(out);
+            for (Organism organism : organisms) {
+                out.putString(organism.getId());
+                out.putShort(clades.encode(organism.getCladeName()));
+                out.putString(organism.getGenusSpecies());
+                out.putInt(organism.getLifespanEstimate());
+                out.putShort(lifespanUnits.encode(organism.getLifespanUnit()));
+                out.putString(organism.getDefinitiveFeatures());
+                out.putFloat(organism.getAverageLength());
+                out.putShort(lengthUnits.encode(organism.getLengthUnit()));
+            }
+            out.finish();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Snapshot of {} organisms written to {}", organisms.size(), file);
+    }
+
+    /**
+     * Reads every organism from a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @return the organisms, in the order they were written.
+     * @throws IOException if the file can't be read, isn't a snapshot, has a newer version, or fails its checksum.
+     */
+    public static List<Organism> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 16 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32C crc = new CRC32C();
+            ByteBuffer body = buffer.duplicate();
+            body.limit((int) size - 4);
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException("Snapshot checksum does not match, the file is damaged: " + file);
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int count = buffer.getInt();
+
+            Input in = new Input(buffer);
+            String[] clades = in.getDictionary();
+            String[] lifespanUnits = in.getDictionary();
+            String[] lengthUnits = in.getDictionary();
+            List<Organism> organisms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = in.getString();
+                String clade = clades[buffer.getShort()];
+                String genus = in.getString();
+                int lifespan = buffer.getInt();
+                String lifespanUnit = lifespanUnits[buffer.getShort()];
+                String features = in.getString();
+                float length = buffer.getFloat();
+                String lengthUnit = lengthUnits[buffer.getShort()];
+                organisms.add(new Organism(id, clade, genus, lifespan, lifespanUnit, features, length, lengthUnit));
+            }
+            logger.info("Snapshot of {} organisms read from {}", count, file);
+            return organisms;
+        } catch (RuntimeException e) {
+            //a bad count or length runs off the end of the buffer or a dictionary
+            throw new IOException("Snapshot is damaged: " + file, e);
+        }
+    }
+
+    /**
+     * Codes for the distinct values of one categorical field, in the order first seen. Null is code 0.
+     */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Short> codes = new HashMap<>();
+
+        Dictionary() {
+            values.add(null);
+        }
+
+        short encode(String value) throws IOException {
+            if (value == null) {
+                return 0;
+            }
+            Short code = codes.get(value);
+            if (code == null) {
+                if (values.size() > Short.MAX_VALUE) {
+                    throw new IOException("Too many distinct values to snapshot: " + values.size());
+                }
+                code = (short) values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        void write(Output out) throws IOException {
+            out.putInt(values.size());
+            for (String value : values) {
+                out.putString(value);
+            }
+        }
+    }
+
+    /**
+     * Buffered writer that keeps a running CRC of everything written.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(4);
+            buffer.putFloat(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Makes room for n more bytes, writing out the buffer or growing it for a very long string.
+         */
+        private void ensure(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return;
+            }
+            flush();
+            if (buffer.capacity() < n) {
+                buffer = ByteBuffer.allocate(n);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.array(), 0, buffer.limit());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Writes the buffer and the checksum of everything before it.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads strings from the mapped file, through one reusable byte array.
+     */
+    private static final class Input {
+        private final ByteBuffer buffer;
+        private byte[] bytes = new byte[256];
+
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String getString() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        String[] getDictionary() {
+            String[] values = new String[buffer.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = CategoryDictionary.canonical(getString());
+            }
+            return values;
+        }
+    }
+}
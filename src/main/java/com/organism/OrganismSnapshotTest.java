@@ -0,0 +1,52 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismSnapshotTest {
+
+    @org.junit.jupiter.api.Test
+    void roundTrip() throws IOException {
+        Path file = Files.createTempFile("organisms", ".snapshot");
+        try {
+            OrganismManager manager = new OrganismManager();
+            manager.addOrganism(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", "extinct, prehistoric", 50.5F, "m"));
+            manager.addOrganism(new Organism("00022", "Lycophyta", "Sigillaria – ñ", 20, "years", null, 500F, "cm"));
+            manager.addOrganism(new Organism("00100", "Mammalia", "Canis lupus", 12, "months", "fur", 1300F, "mm"));
+            manager.saveSnapshot(file.toString());
+
+            OrganismManager loaded = new OrganismManager();
+            loaded.addOrganism(new Organism("00999", "Aves", "Aquila", 30, "years", "wings", 80F, "cm"));
+            assertEquals(3, loaded.loadSnapshot(file.toString()));
+
+            List<Organism> organisms = loaded.getOrganisms();
+            assertEquals("00021", organisms.get(0).getId());
+            assertEquals("Sigillaria – ñ", organisms.get(1).getGenusSpecies());
+            assertNull(organisms.get(1).getDefinitiveFeatures());
+            assertEquals("months", organisms.get(2).getLifespanUnit());
+            assertEquals(1300F, organisms.get(2).getAverageLength());
+            assertFalse(loaded.idDuplicate("00999"));
+            assertEquals(manager.getAvg("Lycophyta"), loaded.getAvg("Lycophyta"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void damagedFileIsRejected() throws IOException {
+        Path file = Files.createTempFile("organisms", ".snapshot");
+        try {
+            OrganismSnapshot.write(file, List.of(new Organism("00001", "Aves", "Aquila", 30, "years", "wings", 80F, "cm")));
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> OrganismSnapshot.read(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.organism;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Organisms read from a file one record at a time, either dash delimited text with OrganismParser or
+ * JSON with OrganismJsonParser.
+ *
+ * Use it by calling next() until it returns false. After each call either getOrganism() or getError() is set.
+ */
+public interface OrganismSource extends Closeable {
+
+    /**
+     * Moves to the next record and parses it.
+     *
+     * @return true if a record was parsed, false at the end of the input.
+     * @throws IOException if the input can't be read, or is JSON that isn't well formed.
+     */
+    boolean next() throws IOException;
+
+    /**
+     * @return the organism from the last record, or null if the record had an error.
+     */
+    Organism getOrganism();
+
+    /**
+     * @return the error from the last record, or null if it parsed into an organism.
+     */
+    OrganismParser.ParseError getError();
+
+    /**
+     * @return the line the last record started on, starting at 1.
+     */
+    long getLineNumber();
+
+    /**
+     * Opens a file with the parser for its extension: .json and .jsonl are read as JSON, .csv is refused
+     * and anything else is read as dash delimited text. A trailing .gz means the file is decompressed while it is read,
+     * so the gzipped exports from OrganismExporter load back in. Text is always read as UTF-8, like the exporter
+     * writes it and ParallelFileLoader reads it, and bytes that aren't UTF-8 fail the load.
+     *
+     * @param file the file to read.
+     * @return the source, which must be closed.
+     * @throws IOException if the file is CSV or can't be opened, or a .gz file isn't gzip.
+     *         Reading text that isn't UTF-8 throws a MalformedInputException from next().
+     */
+    static OrganismSource open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        ExportFormat format = ExportFormat.fromFileName(name);
+        //read as dash text every row would fail, so say why up front
+        if (format == ExportFormat.CSV) {
+            throw new IOException("CSV can't be imported, use a .txt or .jsonl export: " + name);
+        }
+        boolean json = format == ExportFormat.JSON_LINES;
+        if (!ExportFormat.isGzip(name)) {
+            if (json) {
+                return new OrganismJsonParser(Files.newInputStream(file));
+            }
+            return new OrganismParser(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        }
+
+        InputStream in = Files.newInputStream(file);
+        try {
+            InputStream gzip = new GZIPInputStream(in, 64 * 1024);
+            if (json) {
+                return new OrganismJsonParser(gzip);
+            }
+            //a decoder of its own reports bad bytes like newBufferedReader does, instead of replacing them
+            return new OrganismParser(new InputStreamReader(gzip, StandardCharsets.UTF_8.newDecoder()));
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.organism;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Table model for the organism JTable that reads rows from the database only when they are shown.
+ *
+ * Rows are fetched a page at a time in organism_id order using keyset pagination, and only the most recently
+ * used pages are kept in memory. The row count comes from a cached COUNT(*), so the table can show millions
+ * of organisms without loading them all.
+ *
+ * All reads run as BackgroundTasks so the event dispatch thread never waits on the database. Rows of a page that is
+ * still loading show as blank and are redrawn when the page arrives. Every method here must be called on the
+ * event dispatch thread.
+ */
+public class OrganismTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = LogManager.getLogger(OrganismTableModel.class);
+
+    /** Rows fetched per page when no size is given. */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    /** Pages kept in memory when no size is given. */
+    public static final int DEFAULT_CACHED_PAGES = 20;
+
+    private static final String[] COLUMNS = {"ID", "Clade", "Genus & Species", "Lifespan", "Lifespan Unit", "Features", "Average Length", "Length unit"};
+    private static final Class<?>[] COLUMN_CLASSES = {String.class, String.class, String.class, Integer.class,
+            String.class, String.class, Float.class, String.class};
+
+    private final DatabaseHelper dbHelper;
+    private final int pageSize;
+    private final Map<Integer, List<Organism>> pages;
+    //last ID of each page that has been read, so the next page can start right after it
+    private final Map<Integer, String> pageLastIds = new HashMap<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int rowCount = 0;
+    private boolean countStale = true;
+    private boolean counting;
+    //bumped whenever cached pages are thrown away, so page loads that started before are ignored
+    private int generation;
+
+    /**
+     * Creates a model with the default page size and cache size.
+     *
+     * @param dbHelper the database to read organisms from.
+     */
+    public OrganismTableModel(DatabaseHelper dbHelper) {
+        this(dbHelper, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Creates a model that reads pageSize rows at a time and keeps at most cachedPages pages.
+     *
+     * @param dbHelper the database to read organisms from.
+     * @param pageSize rows per page.
+     * @param cachedPages the most pages kept in memory, least recently used pages are dropped first.
+     */
+    public OrganismTableModel(DatabaseHelper dbHelper, int pageSize, int cachedPages) {
+        this.dbHelper = dbHelper;
+        this.pageSize = pageSize;
+        //access ordered LinkedHashMap makes a simple LRU cache
+        this.pages = new LinkedHashMap<>(cachedPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Organism>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Returns the last known row count. If it is out of date a new COUNT(*) is started in the background
+     * and the table is told to redraw when it comes back.
+     */
+    @Override
+    public int getRowCount() {
+        if (countStale && !counting) {
+            counting = true;
+            BackgroundTask.run(task -> dbHelper.countOrganisms(),
+                    count -> {
+                        counting = false;
+                        countStale = false;
+                        rowCount = count;
+                        fireTableDataChanged();
+                    },
+                    e -> {
+                        counting = false;
+                        countStale = false;
+                        logger.error("Could not count organisms", e);
+                    });
+        }
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Organism organism = getOrganismAt(row);
+        if (organism == null) {
+            return null;
+        }
+        switch (column) {
+            case 0: return organism.getId();
+            case 1: return organism.getCladeName();
+            case 2: return organism.getGenusSpecies();
+            case 3: return organism.getLifespanEstimate();
+            case 4: return organism.getLifespanUnit();
+            case 5: return organism.getDefinitiveFeatures();
+            case 6: return organism.getAverageLength();
+            case 7: return organism.getLengthUnit();
+            default: return null;
+        }
+    }
+
+    /**
+     * Returns the organism shown in a row, starting a read of its page if it isn't cached.
+     *
+     * @param row the table row.
+     * @return the organism, or null if the row doesn't exist or its page is still loading.
+     */
+    public Organism getOrganismAt(int row) {
+        List<Organism> page = getPage(row / pageSize);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    /**
+     * Throws away the cached pages, recounts the rows and tells the table to redraw.
+     */
+    public void refresh() {
+        pages.clear();
+        pageLastIds.clear();
+        loadingPages.clear();
+        generation++;
+        countStale = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows a newly added organism without reloading the table.
+     * Only the cached pages from the new row onward are dropped, since their rows shift down by one.
+     *
+     * @param organism the organism that was added to the database.
+     */
+    public void organismInserted(Organism organism) {
+        int row = findInsertRow(organism.getId());
+        if (row >= 0) {
+            applyInsert(row);
+            return;
+        }
+        //not inside a cached page, its row is the number of organisms with a smaller ID
+        BackgroundTask.run(task -> dbHelper.countOrganismsBefore(organism.getId()), this::applyInsert,
+                e -> {
+                    logger.error("Could not find row for new organism {}", organism.getId(), e);
+                    refresh();
+                });
+    }
+
+    /**
+     * Adds one to the row count and fires the insert event for a row.
+     *
+     * @param row the new row.
+     */
+    private void applyInsert(int row) {
+        rowCount++;
+        dropPagesFrom(row / pageSize);
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Shows the new values of an updated organism. If its row isn't cached it isn't on screen,
+     * so there is nothing to redraw.
+     *
+     * @param organism the organism as it is now in the database.
+     */
+    public void organismUpdated(Organism organism) {
+        for (Map.Entry<Integer, List<Organism>> entry : pages.entrySet()) {
+            List<Organism> page = entry.getValue();
+            int index = indexInPage(page, organism.getId());
+            if (index >= 0) {
+                page.set(index, organism);
+                int row = entry.getKey() * pageSize + index;
+                fireTableRowsUpdated(row, row);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted organism's row without reloading the table.
+     *
+     * @param organism the organism that was deleted from the database.
+     */
+    public void organismDeleted(Organism organism) {
+        int row = findCachedRow(organism.getId());
+        if (row >= 0) {
+            applyDelete(row);
+            return;
+        }
+        //not cached, its old row is the number of organisms with a smaller ID
+        BackgroundTask.run(task -> dbHelper.countOrganismsBefore(organism.getId()), this::applyDelete,
+                e -> {
+                    logger.error("Could not find row for deleted organism {}", organism.getId(), e);
+                    refresh();
+                });
+    }
+
+    /**
+     * Takes one off the row count and fires the delete event for a row.
+     *
+     * @param row the deleted row.
+     */
+    private void applyDelete(int row) {
+        if (row >= rowCount) {
+            refresh();
+            return;
+        }
+        rowCount--;
+        dropPagesFrom(row / pageSize);
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Finds the row an organism is shown in, using only the cached pages.
+     *
+     * @param id the organism ID.
+     * @return the row, or -1 if the organism isn't in a cached page.
+     */
+    private int findCachedRow(String id) {
+        for (Map.Entry<Integer, List<Organism>> entry : pages.entrySet()) {
+            int index = indexInPage(entry.getValue(), id);
+            if (index >= 0) {
+                return entry.getKey() * pageSize + index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Works out the row a new ID will go in, using only the cached pages.
+     *
+     * @param id the new organism ID.
+     * @return the row, or -1 if the ID doesn't fall inside a cached page.
+     */
+    private int findInsertRow(String id) {
+        for (Map.Entry<Integer, List<Organism>> entry : pages.entrySet()) {
+            int pageNumber = entry.getKey();
+            List<Organism> page = entry.getValue();
+            String before = pageNumber == 0 ? null : pageLastIds.get(pageNumber - 1);
+            if (page.isEmpty() || (pageNumber > 0 && before == null) || (before != null && id.compareTo(before) <= 0)) {
+                continue;
+            }
+            //the ID belongs on this page if it is not past its last row, or this is the last page
+            boolean lastPage = page.size() < pageSize;
+            if (lastPage || id.compareTo(page.get(page.size() - 1).getId()) <= 0) {
+                return pageNumber * pageSize - indexInPage(page, id) - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Binary searches a page, which is sorted by ID.
+     *
+     * @return the index of the ID, or (-(insertion point) - 1) if it isn't there.
+     */
+    private static int indexInPage(List<Organism> page, String id) {
+        int low = 0;
+        int high = page.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = page.get(mid).getId().compareTo(id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Drops the cached pages from pageNumber onward, whose rows have shifted.
+     *
+     * @param pageNumber the first page to drop.
+     */
+    private void dropPagesFrom(int pageNumber) {
+        pages.keySet().removeIf(p -> p >= pageNumber);
+        pageLastIds.keySet().removeIf(p -> p >= pageNumber);
+        loadingPages.clear();
+        generation++;
+    }
+
+    /**
+     * Returns a page from the cache, or starts reading it in the background.
+     *
+     * @param pageNumber the page, starting at 0.
+     * @return the organisms on the page, or null while it is loading.
+     */
+    private List<Organism> getPage(int pageNumber) {
+        List<Organism> page = pages.get(pageNumber);
+        if (page != null || !loadingPages.add(pageNumber)) {
+            return page;
+        }
+
+        int loadGeneration = generation;
+        String afterId = pageNumber == 0 ? null : pageLastIds.get(pageNumber - 1);
+        BackgroundTask.run(task -> {
+                    if (pageNumber == 0 || afterId != null) {
+                        return dbHelper.getOrganismPage(afterId, pageSize);
+                    }
+                    //jumped straight here, so there is no key to start after
+                    return dbHelper.getOrganismPageAt(pageNumber * pageSize, pageSize);
+                },
+                loaded -> pageLoaded(pageNumber, loaded, loadGeneration),
+                e -> {
+                    loadingPages.remove(pageNumber);
+                    logger.error("Could not read organism page {}", pageNumber, e);
+                });
+        return null;
+    }
+
+    /**
+     * Caches a page that finished loading and redraws its rows, unless the cache was cleared while it loaded.
+     */
+    private void pageLoaded(int pageNumber, List<Organism> page, int loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        loadingPages.remove(pageNumber);
+        if (!page.isEmpty()) {
+            pageLastIds.put(pageNumber, page.get(page.size() - 1).getId());
+        }
+        pages.put(pageNumber, page);
+
+        int first = pageNumber * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
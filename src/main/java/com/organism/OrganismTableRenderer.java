@@ -0,0 +1,191 @@
+package com.organism;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes organisms as the fixed width table displayOrganisms shows, without going through printf.
+ *
+ * Each row is built in one reusable StringBuilder with hand-rolled padding and number formatting, and rows are
+ * handed to the Writer 64 KB at a time, so printing a large catalog costs a few large writes instead of a format
+ * parse and a flush per row. The output is the same as the old printf layout, except that the average length
+ * always uses '.' as the decimal point whatever the default locale is.
+ */
+public class OrganismTableRenderer {
+    /** Width of each column, the value is padded with spaces up to it and never cut. */
+    private static final int[] WIDTHS = {8, 20, 40, 15, 15, 60, 15, 15};
+    private static final String[] HEADINGS = {"ID |", "| Clade |", "| Genus & Species |", "| Lifespan |",
+            "| Lifespan Unit |", "| Features |", "| Avg Length |", "| Length Unit|"};
+    private static final String RULE = "---------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------";
+    private static final String NEWLINE = System.lineSeparator();
+    /** Characters collected before they are written out. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 1024);
+    private char[] chars = new char[BUFFER_SIZE + 1024];
+    private int column;
+
+    /**
+     * Creates a renderer that writes to out. The writer is flushed after each table but never closed.
+     *
+     * @param out where the table goes, for example System.out or a file.
+     */
+    public OrganismTableRenderer(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the header and the rows from index from up to, but not including, index to.
+     * Rows before from are skipped and iteration stops at to, so a page near the start is cheap.
+     *
+     * @param rows the organisms, in display order.
+     * @param from index of the first row to write, starting at 0.
+     * @param to index after the last row to write.
+     * @return the number of rows written.
+     * @throws IOException if the writer fails.
+     */
+    public long render(Iterable<Organism> rows, long from, long to) throws IOException {
+        writeHeader();
+        long index = 0;
+        long written = 0;
+        for (Organism organism : rows) {
+            if (index >= to) {
+                break;
+            }
+            if (index >= from) {
+                writeRow(organism);
+                written++;
+            }
+            index++;
+        }
+        flush();
+        return written;
+    }
+
+    /**
+     * Writes the column headings and the rule under them.
+     */
+    public void writeHeader() {
+        for (String heading : HEADINGS) {
+            cell(heading);
+        }
+        endLine();
+        buffer.append(RULE).append(NEWLINE);
+    }
+
+    /**
+     * Writes one organism as a table row.
+     *
+     * @param organism the organism.
+     * @throws IOException if the writer fails.
+     */
+    public void writeRow(Organism organism) throws IOException {
+        cell(organism.getId());
+        cell(organism.getCladeName());
+        cell(organism.getGenusSpecies());
+        int start = startCell();
+        buffer.append(organism.getLifespanEstimate());
+        pad(start);
+        cell(organism.getLifespanUnit());
+        cell(organism.getDefinitiveFeatures());
+        start = startCell();
+        appendTwoDecimals(organism.getAverageLength());
+        pad(start);
+        cell(organism.getLengthUnit());
+        endLine();
+        if (buffer.length() >= BUFFER_SIZE) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes out everything buffered and flushes the writer.
+     *
+     * @throws IOException if the writer fails.
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void cell(String value) {
+        int start = startCell();
+        buffer.append(value);
+        pad(start);
+    }
+
+    /**
+     * @return where the next cell's text starts, after the space between cells.
+     */
+    private int startCell() {
+        if (column > 0) {
+            buffer.append(' ');
+        }
+        return buffer.length();
+    }
+
+    /**
+     * Pads the cell that started at start to its column's width, then moves to the next column.
+     */
+    private void pad(int start) {
+        for (int n = WIDTHS[column] - (buffer.length() - start); n > 0; n--) {
+            buffer.append(' ');
+        }
+        column++;
+    }
+
+    private void endLine() {
+        buffer.append(NEWLINE);
+        column = 0;
+    }
+
+    /**
+     * Appends a value like %.2f does: the shortest decimal digits of the value as a double, rounded half up
+     * to two places. Values that Double.toString would write with an exponent go through String.format.
+     */
+    private void appendTwoDecimals(float value) {
+        double d = value;
+        double abs = Math.abs(d);
+        if (!(abs >= 1e-3 && abs < 1e7)) {
+            buffer.append(String.format(Locale.ROOT, "%.2f", d));
+            return;
+        }
+        String digits = Double.toString(abs);
+        int dot = digits.indexOf('.');
+        int fraction = digits.length() - dot - 1;
+        long cents = Long.parseLong(digits, 0, dot, 10) * 100 + (digits.charAt(dot + 1) - '0') * 10;
+        if (fraction > 1) {
+            cents += digits.charAt(dot + 2) - '0';
+        }
+        if (fraction > 2 && digits.charAt(dot + 3) >= '5') {
+            cents++;
+        }
+        if (d < 0) {
+            buffer.append('-');
+        }
+        buffer.append(cents / 100).append('.');
+        long rest = cents % 100;
+        if (rest < 10) {
+            buffer.append('0');
+        }
+        buffer.append(rest);
+    }
+
+    /**
+     * Hands the buffered text to the writer through the reused char array, so no String is made.
+     */
+    private void drain() throws IOException {
+        int length = buffer.length();
+        if (length == 0) {
+            return;
+        }
+        if (length > chars.length) {
+            chars = new char[length];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+    }
+}
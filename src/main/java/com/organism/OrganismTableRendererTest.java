@@ -0,0 +1,59 @@
+package com.organism;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismTableRendererTest {
+
+    //the printf layout displayOrganisms used before the renderer
+    private static String printfRow(Organism o) {
+        return String.format(Locale.ROOT, "%-8s %-20s %-40s %-15d %-15s %-60s %-15.2f %-15s%n",
+                o.getId(), o.getCladeName(), o.getGenusSpecies(), o.getLifespanEstimate(), o.getLifespanUnit(),
+                o.getDefinitiveFeatures(), o.getAverageLength(), o.getLengthUnit());
+    }
+
+    @org.junit.jupiter.api.Test
+    void matchesPrintfLayout() throws IOException {
+        List<Organism> organisms = new ArrayList<>();
+        organisms.add(new Organism("00021", "Lycophyta", "Lepidodendron", 15, "years", null, 50.5F, "m"));
+        organisms.add(new Organism("00022", "Lycophyta", "Sigillaria", 20, "years", "a feature text longer than the sixty characters of its column", 0.125F, "cm"));
+        for (float length : new float[] {0.005F, 1.005F, 2.675F, 99.995F, 0.0001F, 12345678F, 9999999.5F}) {
+            organisms.add(new Organism("00030", "Aves", "Aquila", 1, "years", "wings", length, "mm"));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            organisms.add(new Organism("00040", "Aves", "Aquila", 1 + random.nextInt(100), "days", "fur",
+                    random.nextFloat() * (float) Math.pow(10, random.nextInt(7)), "cm"));
+        }
+
+        StringWriter out = new StringWriter();
+        assertEquals(organisms.size(), new OrganismTableRenderer(out).render(organisms, 0, Long.MAX_VALUE));
+        String[] lines = out.toString().split(System.lineSeparator(), -1);
+        assertEquals(String.format(Locale.ROOT, "%-8s %-20s %-40s %-15s %-15s %-60s %-15s %-15s",
+                "ID |", "| Clade |", "| Genus & Species |", "| Lifespan |", "| Lifespan Unit |", "| Features |",
+                "| Avg Length |", "| Length Unit|"), lines[0]);
+        for (int i = 0; i < organisms.size(); i++) {
+            assertEquals(printfRow(organisms.get(i)), lines[i + 2] + System.lineSeparator());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void writesOnlyThePage() throws IOException {
+        List<Organism> organisms = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            organisms.add(new Organism(String.format("%05d", i), "Aves", "Aquila", 1, "years", "wings", 1F, "cm"));
+        }
+        StringWriter out = new StringWriter();
+        assertEquals(3, new OrganismTableRenderer(out).render(organisms, 4, 7));
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(5, lines.length);
+        assertTrue(lines[2].startsWith("00004 "));
+        assertTrue(lines[4].startsWith("00006 "));
+    }
+}
@@ -0,0 +1,286 @@
+package com.organism;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * In-memory full text index over the genus and species, definitive features and clade of organisms.
+ *
+ * Text is split into lower case words of letters and digits. Each word maps to the set of documents (organisms)
+ * that contain it, kept as a BitSet of small document numbers, so a query with several words is an AND of
+ * bit sets. The words are kept sorted, so a prefix like "prehist*" is a range of them. Results are ranked by
+ * how rare the matched words are, with words in the genus and species counting double.
+ *
+ * The index is kept up to date by calling add and remove as organisms change. Not thread safe.
+ */
+public class OrganismTextIndex {
+    private static final float SPECIES_WEIGHT = 2f;
+    private static final float OTHER_WEIGHT = 1f;
+
+    //word -> documents that contain it, sorted by word for prefix lookups
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+    private final Map<String, Integer> docOfId = new HashMap<>();
+    //per document: its ID, words and the weight of each word
+    private final List<String> ids = new ArrayList<>();
+    private final List<String[]> words = new ArrayList<>();
+    private final List<float[]> weights = new ArrayList<>();
+    //document numbers of removed organisms, reused by the next add
+    private final BitSet freeDocs = new BitSet();
+
+    /**
+     * A matching document and its score.
+     */
+    private static final class Hit {
+        final float score;
+        final int doc;
+
+        Hit(float score, int doc) {
+            this.score = score;
+            this.doc = doc;
+        }
+    }
+
+    /**
+     * One word of a query.
+     */
+    static final class QueryTerm {
+        final String text;
+        final boolean prefix;
+
+        QueryTerm(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Splits text into lower case words of letters and digits.
+     *
+     * @param text the text, may be null.
+     * @return the words in order, repeats included.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Reads a search: words separated by anything that isn't a letter or digit, all of which must match.
+     * A word followed by * matches any word starting with it.
+     *
+     * @param query the search as typed.
+     * @return the words, empty if there are none.
+     */
+    static List<QueryTerm> parseQuery(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= query.length(); i++) {
+            boolean wordChar = i < query.length() && Character.isLetterOrDigit(query.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                boolean prefix = i < query.length() && query.charAt(i) == '*';
+                terms.add(new QueryTerm(query.substring(start, i).toLowerCase(Locale.ROOT), prefix));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @return the number of organisms indexed.
+     */
+    public int size() {
+        return docOfId.size();
+    }
+
+    /**
+     * Indexes an organism. An organism with the same ID that is already indexed is replaced.
+     *
+     * @param organism the organism to index.
+     */
+    public void add(Organism organism) {
+        remove(organism.getId());
+        Map<String, Float> docWords = new HashMap<>();
+        for (String word : tokenize(organism.getGenusSpecies())) {
+            docWords.merge(word, SPECIES_WEIGHT, Float::sum);
+        }
+        for (String word : tokenize(organism.getDefinitiveFeatures())) {
+            docWords.merge(word, OTHER_WEIGHT, Float::sum);
+        }
+        for (String word : tokenize(organism.getCladeName())) {
+            docWords.merge(word, OTHER_WEIGHT, Float::sum);
+        }
+
+        int doc = freeDocs.isEmpty() ? ids.size() : freeDocs.nextSetBit(0);
+        String[] wordArray = new String[docWords.size()];
+        float[] weightArray = new float[docWords.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : docWords.entrySet()) {
+            String word = entry.getKey();
+            BitSet docs = postings.get(word);
+            if (docs == null) {
+                docs = new BitSet();
+                postings.put(word, docs);
+            } else {
+                //keep the String the index already has, so every document with the word shares one copy
+                word = postings.floorKey(word);
+            }
+            docs.set(doc);
+            wordArray[i] = word;
+            weightArray[i] = entry.getValue();
+            i++;
+        }
+        if (doc == ids.size()) {
+            ids.add(organism.getId());
+            words.add(wordArray);
+            weights.add(weightArray);
+        } else {
+            freeDocs.clear(doc);
+            ids.set(doc, organism.getId());
+            words.set(doc, wordArray);
+            weights.set(doc, weightArray);
+        }
+        docOfId.put(organism.getId(), doc);
+    }
+
+    /**
+     * Removes an organism from the index.
+     *
+     * @param id the organism ID.
+     * @return true if it was indexed.
+     */
+    public boolean remove(String id) {
+        Integer doc = docOfId.remove(id);
+        if (doc == null) {
+            return false;
+        }
+        for (String word : words.get(doc)) {
+            BitSet docs = postings.get(word);
+            docs.clear(doc);
+            if (docs.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+        ids.set(doc, null);
+        words.set(doc, null);
+        weights.set(doc, null);
+        freeDocs.set(doc);
+        return true;
+    }
+
+    /**
+     * Finds organisms that contain every word of a search, best matches first.
+     *
+     * @param query words to look for, a word ending in * matches as a prefix. For example "extinct prehist*".
+     * @param limit the most IDs to return.
+     * @return the matching organism IDs, best first; empty if the search has no words.
+     */
+    public List<String> search(String query, int limit) {
+        List<QueryTerm> terms = parseQuery(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        //the documents each term matches, AND-ed together, and how rare each matched word is
+        int total = Math.max(size(), 1);
+        List<Map<String, Float>> termIdfs = new ArrayList<>();
+        BitSet result = null;
+        for (QueryTerm term : terms) {
+            Map<String, Float> idfs = new HashMap<>();
+            BitSet docs = new BitSet();
+            for (Map.Entry<String, BitSet> entry : matchingWords(term).entrySet()) {
+                docs.or(entry.getValue());
+                idfs.put(entry.getKey(), (float) Math.log(1 + (double) total / entry.getValue().cardinality()));
+            }
+            if (result == null) {
+                result = docs;
+            } else {
+                result.and(docs);
+            }
+            if (result.isEmpty()) {
+                return Collections.emptyList();
+            }
+            termIdfs.add(idfs);
+        }
+
+        //highest score first, then lowest ID, so ties at the cutoff don't depend on reused doc numbers
+        Comparator<Hit> ranking = (a, b) -> a.score != b.score ? Float.compare(b.score, a.score)
+                : ids.get(a.doc).compareTo(ids.get(b.doc));
+        //keep the best limit documents, the worst of them on top of the heap
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, ranking.reversed());
+        for (int doc = result.nextSetBit(0); doc >= 0; doc = result.nextSetBit(doc + 1)) {
+            Hit hit = new Hit(score(doc, termIdfs), doc);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (ranking.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        List<String> found = new ArrayList<>(ranked.size());
+        for (Hit hit : ranked) {
+            found.add(ids.get(hit.doc));
+        }
+        return found;
+    }
+
+    /**
+     * @return every indexed word the term matches, with its documents.
+     */
+    private Map<String, BitSet> matchingWords(QueryTerm term) {
+        if (!term.prefix) {
+            BitSet docs = postings.get(term.text);
+            return docs == null ? Collections.emptyMap() : Collections.singletonMap(term.text, docs);
+        }
+        return postings.subMap(term.text, true, term.text + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Scores a document: for each query term, the weight of its best matching word in the document times how
+     * rare that word is.
+     */
+    private float score(int doc, List<Map<String, Float>> termIdfs) {
+        String[] docWords = words.get(doc);
+        float[] docWeights = weights.get(doc);
+        float score = 0;
+        for (Map<String, Float> idfs : termIdfs) {
+            float bestTerm = 0;
+            for (int i = 0; i < docWords.length; i++) {
+                Float idf = idfs.get(docWords[i]);
+                if (idf != null) {
+                    bestTerm = Math.max(bestTerm, docWeights[i] * idf);
+                }
+            }
+            score += bestTerm;
+        }
+        //short descriptions that match rank above long ones
+        return score / (float) Math.sqrt(docWords.length);
+    }
+}
@@ -0,0 +1,78 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrganismTextIndexTest {
+
+    static List<Organism> organisms() {
+        return List.of(
+                new Organism("00021", "Lycophyta", "Lepidodendron aculeatum", 15, "years", "extinct, prehistoric tree", 50.5F, "m"),
+                new Organism("00022", "Lycophyta", "Sigillaria", 20, "years", "extinct", 500F, "cm"),
+                new Organism("00100", "Mammalia", "Canis lupus", 12, "years", "fur, pack hunter", 1300F, "mm"),
+                new Organism("00101", "Mammalia", "Mammuthus primigenius", 60, "years", "extinct, prehistoric, fur", 4F, "m"));
+    }
+
+    static List<String> ids(List<Organism> organisms) {
+        List<String> ids = new ArrayList<>();
+        for (Organism organism : organisms) {
+            ids.add(organism.getId());
+        }
+        return ids;
+    }
+
+    @org.junit.jupiter.api.Test
+    void managerSearchFollowsChanges() {
+        OrganismManager manager = new OrganismManager();
+        for (Organism organism : organisms()) {
+            manager.addOrganism(organism);
+        }
+        assertEquals(List.of("00021", "00101"), ids(manager.search("Extinct PREHIST*", 10)));
+        //mamm* matches the species of 00101 as well as its clade, and species words count double
+        assertEquals(List.of("00101", "00100"), ids(manager.search("fur mamm*", 10)));
+        assertEquals(1, manager.search("extinct", 1).size());
+        assertTrue(manager.search("  ", 10).isEmpty());
+
+        manager.updateOrganism("00022", "features", "extinct, prehistoric");
+        manager.removeOrganism("00101");
+        manager.addOrganism(new Organism("00102", "Aves", "Archaeopteryx", 10, "years", "prehistoric bird", 50F, "cm"));
+        assertEquals(List.of("00022", "00021"), ids(manager.search("extinct prehistoric", 10)));
+        assertEquals(List.of("00102"), ids(manager.search("archaeo* bird", 10)));
+        assertTrue(manager.search("mammuthus", 10).isEmpty());
+    }
+
+    @org.junit.jupiter.api.Test
+    void databaseSearchFollowsChanges() throws Exception {
+        Path dbFile = Files.createTempFile("search", ".db");
+        try (DatabaseHelper dbHelper = new DatabaseHelper(dbFile.toString())) {
+            dbHelper.importOrganisms(organisms().iterator(), DatabaseHelper.DEFAULT_BATCH_SIZE, false);
+            assertEquals(List.of("00021", "00101"), ids(dbHelper.search("Extinct PREHIST*", 10)));
+            //quotes and FTS5 syntax in the text are only word separators
+            assertEquals(List.of("00101", "00100"), ids(dbHelper.search("\"fur\" (mamm*", 10)));
+
+            dbHelper.updateOrganism("00022", "features", "extinct, prehistoric");
+            dbHelper.deleteOrganism("00101");
+            assertEquals(2, dbHelper.search("extinct prehistoric", 10).size());
+            assertTrue(dbHelper.search("mammuthus", 10).isEmpty());
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void tiesAtTheCutoffKeepLowestIds() {
+        OrganismTextIndex index = new OrganismTextIndex();
+        for (int i = 1; i <= 4; i++) {
+            index.add(new Organism(String.format("%05d", i), "Aves", "Aquila", 30, "years", "wings", 80F, "cm"));
+        }
+        //00001's doc number is freed and given to 00009, which scores the same as the others
+        index.remove("00001");
+        index.add(new Organism("00009", "Aves", "Aquila", 30, "years", "wings", 80F, "cm"));
+        index.add(new Organism("00001", "Aves", "Aquila", 30, "years", "wings", 80F, "cm"));
+        assertEquals(List.of("00001", "00002"), index.search("wings", 2));
+    }
+}
@@ -0,0 +1,66 @@
+package com.organism;
+
+/**
+ * Validation rules shared by everything that creates organisms: the CLI, the GUI, file loading and bulk imports.
+ *
+ * An organism is valid when its ID is exactly 5 digits, its lifespan and average length are positive,
+ * and its length unit is mm, cm, or m.
+ */
+public final class OrganismValidator {
+
+    private OrganismValidator() {
+    }
+
+    /**
+     * Checks that an ID is exactly 5 digits.
+     *
+     * @param id the ID to check.
+     * @return true if the ID is valid.
+     */
+    public static boolean isValidId(String id) {
+        if (id == null || id.length() != 5) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a length unit is one of mm, cm, or m.
+     *
+     * @param unit the unit to check.
+     * @return true if the unit is allowed.
+     */
+    public static boolean isValidLengthUnit(String unit) {
+        return "mm".equals(unit) || "cm".equals(unit) || "m".equals(unit);
+    }
+
+    /**
+     * Checks a whole organism against the rules.
+     *
+     * @param organism the organism to check.
+     * @return null if the organism is valid, otherwise a short reason it was rejected.
+     */
+    public static String validate(Organism organism) {
+        if (organism == null) {
+            return "missing organism";
+        }
+        if (!isValidId(organism.getId())) {
+            return "id should be 5 digits";
+        }
+        if (organism.getLifespanEstimate() <= 0) {
+            return "lifespan needs to be positive";
+        }
+        if (!(organism.getAverageLength() > 0)) {
+            return "average length should be positive";
+        }
+        if (!isValidLengthUnit(organism.getLengthUnit())) {
+            return "length unit must be mm, cm, or m";
+        }
+        return null;
+    }
+}
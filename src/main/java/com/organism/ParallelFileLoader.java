@@ -0,0 +1,138 @@
+package com.organism;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses a large organism file in parallel for OrganismManager.loadFileParallel.
+ *
+ * The file is split into chunks that always end right after a newline, each chunk is memory mapped with
+ * FileChannel.map and parsed by an OrganismParser on a fork-join pool. Chunks only know their own line numbers;
+ * the manager merges them in file order and adds each chunk's line count to get the real line numbers,
+ * which is also where duplicate IDs across chunks are caught.
+ */
+final class ParallelFileLoader {
+
+    /** Smallest chunk worth handing to another thread. */
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    /** Largest chunk, keeps the decoded chars of one chunk to a reasonable size. */
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    /**
+     * The parsed contents of one chunk of the file.
+     */
+    static final class Chunk {
+        final List<Organism> organisms = new ArrayList<>();
+        /** Line of each organism, counted from the start of the chunk. */
+        int[] lines = new int[16];
+        /** The first bad line in the chunk with a chunk-relative line number, or null. Parsing stops there. */
+        OrganismParser.ParseError error;
+        /** Number of newlines in the chunk, used to offset the line numbers of the chunks after it. */
+        long newlines;
+
+        void add(Organism organism, int line) {
+            if (organisms.size() == lines.length) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[organisms.size()] = line;
+            organisms.add(organism);
+        }
+    }
+
+    private ParallelFileLoader() {
+    }
+
+    /**
+     * Splits the file into newline aligned chunks and starts parsing all of them on the pool.
+     *
+     * @param channel an open channel to the file.
+     * @param pool the pool to parse on.
+     * @return one task per chunk, in file order.
+     * @throws IOException if the file can't be read.
+     */
+    static List<ForkJoinTask<Chunk>> submit(FileChannel channel, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (pool.getParallelism() * 4L)));
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = nextLineStart(channel, Math.min(size, start + target), size);
+            long chunkStart = start;
+            long chunkLength = end - start;
+            tasks.add(pool.submit(() -> parseChunk(channel, chunkStart, chunkLength)));
+            start = end;
+        }
+        return tasks;
+    }
+
+    /**
+     * Finds the first position at or after from that begins a new line.
+     *
+     * @return the position just after the next newline, or size if there isn't one.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        if (from >= size) {
+            return size;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        //the byte before from might already be the newline
+        long position = from - 1;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Maps and parses one chunk. Stops at the first bad line of the chunk.
+     */
+    private static Chunk parseChunk(FileChannel channel, long start, long length) throws IOException {
+        Chunk chunk = new Chunk();
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        for (int i = 0; i < mapped.limit(); i++) {
+            if (mapped.get(i) == '\n') {
+                chunk.newlines++;
+            }
+        }
+
+        //chunks end on a newline, so no UTF-8 character is split between two chunks
+        CharBuffer chars;
+        try {
+            chars = StandardCharsets.UTF_8.newDecoder().decode(mapped);
+        } catch (CharacterCodingException e) {
+            throw new IOException("File is not valid UTF-8 near byte " + start, e);
+        }
+
+        OrganismParser parser = new OrganismParser(chars.array(), chars.arrayOffset() + chars.position(),
+                chars.arrayOffset() + chars.limit());
+        while (parser.next()) {
+            if (parser.getError() != null) {
+                chunk.error = parser.getError();
+                break;
+            }
+            chunk.add(parser.getOrganism(), (int) parser.getLineNumber());
+        }
+        return chunk;
+    }
+}
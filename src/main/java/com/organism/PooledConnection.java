@@ -0,0 +1,122 @@
+package com.organism;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from the ConnectionPool.
+ *
+ * Each pooled connection keeps its own cache of prepared statements keyed by their SQL, so the fixed
+ * INSERT/DELETE/UPDATE/SELECT statements are only compiled once per connection. The cache is bounded and the
+ * least recently used statement is closed when it is full, so SQL built at runtime can't use up memory;
+ * SQL that is different nearly every time should be prepared on getConnection() and closed instead.
+ * Closing it hands the connection back to the pool rather than closing it.
+ */
+public class PooledConnection implements AutoCloseable {
+    /** The most prepared statements kept open per connection. */
+    static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    //access ordered so the least recently used statement is the one closed
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > STATEMENT_CACHE_SIZE) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private long lastUsed = System.currentTimeMillis();
+
+    /**
+     * Wraps an open connection that belongs to a pool.
+     *
+     * @param pool the pool the connection goes back to.
+     * @param connection the open JDBC connection.
+     */
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the underlying JDBC connection.
+     *
+     * @return the connection.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns a cached prepared statement for the SQL, preparing it the first time.
+     * The statement belongs to the pool, so callers should close its ResultSets but not the statement itself.
+     *
+     * @param sql the SQL to prepare.
+     * @return the prepared statement with its parameters cleared.
+     * @throws SQLException if the statement can't be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = connection.prepareStatement(sql);
+            statements.put(sql, ps);
+        } else {
+            ps.clearParameters();
+        }
+        return ps;
+    }
+
+    /**
+     * Gives the connection back to the pool.
+     */
+    @Override
+    public void close() {
+        pool.release(this);
+    }
+
+    /**
+     * Returns when the connection was last given back to the pool.
+     *
+     * @return time in milliseconds.
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Marks the connection as just used.
+     */
+    void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Closes all cached statements and the connection itself, ignoring errors.
+     */
+    void closeQuietly() {
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // closing anyway
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+            // closing anyway
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.organism;
+
+import javax.swing.*;
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Window;
+
+/**
+ * Small dialog shown while a BackgroundTask runs. It shows how many rows are done and how many rows per second
+ * are being handled, and has a Cancel button. It is modal so the rest of the window can't be used during the job,
+ * but the event dispatch thread keeps running, so the window still redraws.
+ */
+public class ProgressDialog extends JDialog {
+    private static final long serialVersionUID = 1L;
+
+    private final JLabel rowsLabel = new JLabel("Starting...");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates the dialog centered on its parent. It isn't shown until setVisible(true).
+     *
+     * @param parent the window the dialog belongs to.
+     * @param title the dialog title.
+     */
+    public ProgressDialog(Component parent, String title) {
+        super(ownerOf(parent), title, ModalityType.DOCUMENT_MODAL);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        panel.add(rowsLabel, BorderLayout.NORTH);
+        panel.add(bar, BorderLayout.CENTER);
+        panel.add(cancelButton, BorderLayout.SOUTH);
+        setContentPane(panel);
+        setSize(360, 140);
+        setLocationRelativeTo(parent);
+    }
+
+    /**
+     * @return the window that contains the component, or the component itself if it is a window.
+     */
+    private static Window ownerOf(Component parent) {
+        if (parent == null || parent instanceof Window) {
+            return (Window) parent;
+        }
+        return SwingUtilities.getWindowAncestor(parent);
+    }
+
+    /**
+     * Sets what happens when Cancel is pressed. The button is disabled after the first press.
+     *
+     * @param action the cancel action.
+     */
+    public void onCancel(Runnable action) {
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            rowsLabel.setText(rowsLabel.getText() + " - cancelling");
+            action.run();
+        });
+    }
+
+    /**
+     * Shows the rows done so far and the rate since the dialog was created. They are shown as records read, since
+     * an import counts every record it reads, rejected ones included.
+     *
+     * @param rows rows done so far.
+     */
+    public void showRows(long rows) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        long perSecond = seconds > 0 ? Math.round(rows / seconds) : 0;
+        rowsLabel.setText(String.format("Records read: %,d (%,d records/s)", rows, perSecond));
+    }
+}
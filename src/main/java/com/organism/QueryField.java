@@ -0,0 +1,92 @@
+package com.organism;
+
+/**
+ * The organism attributes that queries can filter and sort on, with their column in the Organisms table.
+ *
+ * LIFESPAN, AVERAGE_LENGTH and LENGTH_CM are numbers, the rest are text. LENGTH_CM is the average length in
+ * centimeters, so organisms measured in different units can be compared.
+ */
+public enum QueryField {
+    ID("organism_id", false),
+    CLADE("clade", false),
+    GENUS("species", false),
+    LIFESPAN("lifespan", true),
+    LIFESPAN_UNIT("lifespan_unit", false),
+    FEATURES("features", false),
+    AVERAGE_LENGTH("average_length", true),
+    LENGTH_UNIT("length_unit", false),
+    LENGTH_CM("length_cm", true);
+
+    private final String column;
+    private final boolean numeric;
+
+    QueryField(String column, boolean numeric) {
+        this.column = column;
+        this.numeric = numeric;
+    }
+
+    /**
+     * @return the column in the Organisms table.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return true for the number fields, false for the text ones.
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * @return true for clade and the two units, whose values are shared through CategoryDictionary.
+     */
+    boolean isCategory() {
+        return this == CLADE || this == LIFESPAN_UNIT || this == LENGTH_UNIT;
+    }
+
+    /**
+     * Reads a number field from an organism.
+     *
+     * @param organism the organism.
+     * @return the value, or 0 for a text field.
+     */
+    double number(Organism organism) {
+        switch (this) {
+            case LIFESPAN:
+                return organism.getLifespanEstimate();
+            case AVERAGE_LENGTH:
+                return organism.getAverageLength();
+            case LENGTH_CM:
+                return organism.getLengthCentimeters();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Reads a text field from an organism.
+     *
+     * @param organism the organism.
+     * @return the value, which may be null, or null for a number field.
+     */
+    String text(Organism organism) {
+        switch (this) {
+            case ID:
+                return organism.getId();
+            case CLADE:
+                return organism.getCladeName();
+            case GENUS:
+                return organism.getGenusSpecies();
+            case LIFESPAN_UNIT:
+                return organism.getLifespanUnit();
+            case FEATURES:
+                return organism.getDefinitiveFeatures();
+            case LENGTH_UNIT:
+                return organism.getLengthUnit();
+            default:
+                return null;
+        }
+    }
+}
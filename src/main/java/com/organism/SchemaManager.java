@@ -0,0 +1,181 @@
+package com.organism;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Creates and upgrades the database schema.
+ *
+ * Each change to the schema is a numbered migration. The schema_version table records which migrations have run,
+ * so opening a database only runs the ones it is missing, each in its own transaction. Databases made before
+ * schema_version existed start at version 0; the migrations check what is already there, so running them on
+ * those is safe. ANALYZE runs after any migration so SQLite's planner knows about the indexes.
+ */
+public final class SchemaManager {
+    private static final Logger logger = LogManager.getLogger(SchemaManager.class);
+
+    /**
+     * One step of the schema.
+     */
+    @FunctionalInterface
+    private interface Migration {
+        void apply(Statement st) throws SQLException;
+    }
+
+    /** SQL for the centimeters in one of a unit, the same conversion as LengthUnit. %s is the unit expression. */
+    static final String CENTIMETERS_PER_UNIT = "(CASE lower(%s) WHEN 'm' THEN 100.0 WHEN 'mm' THEN 0.1 ELSE 1.0 END)";
+
+    //migration n takes the schema to version n, never change or reorder one that has shipped
+    private static final List<Migration> MIGRATIONS = List.of(
+            SchemaManager::createOrganismsTable,
+            SchemaManager::addLengthCentimeters,
+            SchemaManager::addIndexes,
+            SchemaManager::addTextSearch
+    );
+
+    private SchemaManager() {
+    }
+
+    /**
+     * @return the version a fully migrated database is at.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.size();
+    }
+
+    /**
+     * Brings the database up to the latest schema version.
+     *
+     * @param connection an open connection with auto-commit on.
+     * @return the number of migrations that ran.
+     * @throws SQLException if a migration fails, the database is left at the last version that succeeded.
+     */
+    public static int migrate(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_version (version INTEGER PRIMARY KEY, "
+                    + "applied_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int version = currentVersion(connection);
+        int applied = 0;
+        for (int next = version + 1; next <= MIGRATIONS.size(); next++) {
+            logger.info("Migrating database schema to version {}", next);
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                MIGRATIONS.get(next - 1).apply(st);
+                st.executeUpdate("INSERT INTO schema_version (version) VALUES (" + next + ")");
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                logger.error("Schema migration to version {} failed", next, e);
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            applied++;
+        }
+
+        if (applied > 0) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("ANALYZE");
+            }
+            logger.info("Database schema is at version {}", MIGRATIONS.size());
+        }
+        return applied;
+    }
+
+    /**
+     * @return the highest version in schema_version, or 0 if there is none.
+     */
+    public static int currentVersion(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Version 1: the Organisms table, keyed by organism_id. Tables from older databases may not have the key,
+     * they get a unique index on organism_id instead, or a plain one if they already hold duplicate IDs.
+     */
+    private static void createOrganismsTable(Statement st) throws SQLException {
+        st.execute("CREATE TABLE IF NOT EXISTS Organisms ("
+                + "organism_id TEXT PRIMARY KEY, "
+                + "clade TEXT, "
+                + "species TEXT, "
+                + "lifespan INTEGER, "
+                + "lifespan_unit TEXT, "
+                + "features TEXT, "
+                + "average_length REAL, "
+                + "length_unit TEXT)");
+        if (isPrimaryKey(st, "organism_id")) {
+            return;
+        }
+        if (count(st, "SELECT COUNT(*) FROM (SELECT organism_id FROM Organisms GROUP BY organism_id HAVING COUNT(*) > 1)") == 0) {
+            st.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_organisms_id ON Organisms (organism_id)");
+        } else {
+            logger.warn("Organisms table has duplicate IDs, adding a non-unique ID index");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_organisms_id ON Organisms (organism_id)");
+        }
+    }
+
+    /**
+     * Version 2: length_cm, the average length in centimeters, filled in for the rows already there.
+     */
+    private static void addLengthCentimeters(Statement st) throws SQLException {
+        if (count(st, "SELECT COUNT(*) FROM pragma_table_info('Organisms') WHERE name = 'length_cm'") == 0) {
+            st.execute("ALTER TABLE Organisms ADD COLUMN length_cm REAL");
+        }
+        st.executeUpdate("UPDATE Organisms SET length_cm = average_length * "
+                + String.format(CENTIMETERS_PER_UNIT, "length_unit") + " WHERE length_cm IS NULL");
+    }
+
+    /**
+     * Version 3: indexes for the clade averages and length queries. (clade, length_cm) covers
+     * GROUP BY clade with AVG(length_cm) without reading the table, and serves lookups by clade.
+     */
+    private static void addIndexes(Statement st) throws SQLException {
+        st.execute("CREATE INDEX IF NOT EXISTS idx_organisms_clade_length ON Organisms (clade, length_cm)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_organisms_length_cm ON Organisms (length_cm)");
+    }
+
+    /**
+     * Version 4: organisms_fts, an FTS5 full text index over clade, species and features. It reads its text from
+     * the Organisms table by rowid, and triggers keep it in step with every insert, delete and text change.
+     * VACUUM can renumber rowids, after one the index needs
+     * {@code INSERT INTO organisms_fts(organisms_fts) VALUES ('rebuild')}.
+     */
+    private static void addTextSearch(Statement st) throws SQLException {
+        st.execute("CREATE VIRTUAL TABLE IF NOT EXISTS organisms_fts USING fts5("
+                + "clade, species, features, content='Organisms', content_rowid='rowid')");
+        st.execute("CREATE TRIGGER IF NOT EXISTS organisms_fts_insert AFTER INSERT ON Organisms BEGIN "
+                + "INSERT INTO organisms_fts (rowid, clade, species, features) "
+                + "VALUES (new.rowid, new.clade, new.species, new.features); END");
+        st.execute("CREATE TRIGGER IF NOT EXISTS organisms_fts_delete AFTER DELETE ON Organisms BEGIN "
+                + "INSERT INTO organisms_fts (organisms_fts, rowid, clade, species, features) "
+                + "VALUES ('delete', old.rowid, old.clade, old.species, old.features); END");
+        st.execute("CREATE TRIGGER IF NOT EXISTS organisms_fts_update AFTER UPDATE OF clade, species, features ON Organisms BEGIN "
+                + "INSERT INTO organisms_fts (organisms_fts, rowid, clade, species, features) "
+                + "VALUES ('delete', old.rowid, old.clade, old.species, old.features); "
+                + "INSERT INTO organisms_fts (rowid, clade, species, features) "
+                + "VALUES (new.rowid, new.clade, new.species, new.features); END");
+        //index the rows already there
+        st.execute("INSERT INTO organisms_fts (organisms_fts) VALUES ('rebuild')");
+    }
+
+    private static boolean isPrimaryKey(Statement st, String column) throws SQLException {
+        return count(st, "SELECT COUNT(*) FROM pragma_table_info('Organisms') WHERE name = '" + column + "' AND pk > 0") > 0;
+    }
+
+    private static int count(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.organism;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaManagerTest {
+
+    Path dbFile;
+    Connection connection;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() throws Exception {
+        dbFile = Files.createTempFile("schema", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @org.junit.jupiter.api.Test
+    void createsSchemaOnce() throws SQLException {
+        assertEquals(SchemaManager.latestVersion(), SchemaManager.migrate(connection));
+        assertEquals(0, SchemaManager.migrate(connection));
+        assertEquals(SchemaManager.latestVersion(), SchemaManager.currentVersion(connection));
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("INSERT INTO Organisms (organism_id, clade) VALUES ('00001', 'Aves')");
+            assertThrows(SQLException.class,
+                    () -> st.execute("INSERT INTO Organisms (organism_id, clade) VALUES ('00001', 'Aves')"));
+            //the clade average reads only the covering index
+            try (ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN SELECT clade, AVG(length_cm) FROM Organisms GROUP BY clade")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getString("detail").contains("COVERING INDEX idx_organisms_clade_length"));
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void upgradesOldTable() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE Organisms (organism_id TEXT, clade TEXT, species TEXT, lifespan INTEGER, "
+                    + "lifespan_unit TEXT, features TEXT, average_length REAL, length_unit TEXT)");
+            st.execute("INSERT INTO Organisms VALUES ('00001', 'Aves', 'Aquila', 30, 'years', 'wings', 80, 'mm')");
+        }
+
+        SchemaManager.migrate(connection);
+
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT length_cm FROM Organisms WHERE organism_id = '00001'")) {
+            assertTrue(rs.next());
+            assertEquals(8.0, rs.getDouble(1), 0.001);
+            assertThrows(SQLException.class,
+                    () -> st.execute("INSERT INTO Organisms (organism_id, clade) VALUES ('00001', 'Aves')"));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.organism;
+
+/**
+ * What work running in a BackgroundTask can see of its task: a way to report progress and to check whether
+ * the user pressed Cancel.
+ */
+public interface TaskProgress {
+
+    /**
+     * Reports how many rows are done.
+     *
+     * @param rows rows done so far.
+     */
+    void reportProgress(long rows);
+
+    /**
+     * @return true if the user asked to cancel.
+     */
+    boolean isCancelRequested();
+}